@@ -0,0 +1,28 @@
+package org.trips.service_framework.benchmarks;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.trips.service_framework.models.entities.BaseEntity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "bench_drivers")
+public class BenchDriver extends BaseEntity {
+    @Column(name = "name")
+    private String name;
+
+    @Column(name = "city")
+    private String city;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "vehicle_id")
+    private BenchVehicle vehicle;
+}
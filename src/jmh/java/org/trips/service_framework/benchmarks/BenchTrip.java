@@ -0,0 +1,31 @@
+package org.trips.service_framework.benchmarks;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.trips.service_framework.models.entities.BaseEntity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "bench_trips")
+public class BenchTrip extends BaseEntity {
+    @Column(name = "status")
+    private String status;
+
+    @Column(name = "city")
+    private String city;
+
+    @Column(name = "fare")
+    private Integer fare;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "driver_id")
+    private BenchDriver driver;
+}
@@ -0,0 +1,18 @@
+package org.trips.service_framework.benchmarks;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.trips.service_framework.models.entities.BaseEntity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "bench_vehicles")
+public class BenchVehicle extends BaseEntity {
+    @Column(name = "plate")
+    private String plate;
+}
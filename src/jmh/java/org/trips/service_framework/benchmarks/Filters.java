@@ -0,0 +1,27 @@
+package org.trips.service_framework.benchmarks;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Filter strings of the shapes seen in production, selected by the {@code shape} benchmark parameter.
+ */
+final class Filters {
+    private static final String LARGE_IN = IntStream.rangeClosed(1, 500).mapToObj(String::valueOf).collect(Collectors.joining(","));
+
+    static final Map<String, String> BY_SHAPE = Map.of(
+            "single", "status.eq:CREATED",
+            "multi", "status.in:CREATED,STARTED,ENDED;fare.ge:100;city.like:Pun;deletedAt.isNull",
+            "joins", "status.eq:CREATED;driver-city.eq:Pune;driver-vehicle-plate.like:KA",
+            "orGroups", "status.eq:CREATED;city.eq:Pune__status.eq:ENDED;driver~-city.in:Pune,Delhi",
+            "largeIn", "id.in:" + LARGE_IN
+    );
+
+    private Filters() {
+    }
+
+    static String get(String shape) {
+        return BY_SHAPE.get(shape);
+    }
+}
@@ -0,0 +1,26 @@
+package org.trips.service_framework.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Pageable;
+import org.trips.service_framework.utils.SearchHelper;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PageRequestBenchmark {
+    @Param({"", "createdAt:desc", "createdAt:desc,status,id:asc"})
+    private String sortBy;
+
+    @Benchmark
+    public Pageable getPageRequest() {
+        return SearchHelper.getPageRequest(2, 100, sortBy);
+    }
+}
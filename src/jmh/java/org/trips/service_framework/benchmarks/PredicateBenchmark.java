@@ -0,0 +1,87 @@
+package org.trips.service_framework.benchmarks;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.trips.service_framework.models.CustomSearchSpecification;
+import org.trips.service_framework.models.SearchOperator;
+import org.trips.service_framework.utils.SearchHelper;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Criteria predicate construction against the metamodel of an in-memory H2 database. Only the criteria tree is
+ * built, no query is executed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PredicateBenchmark {
+    @Param({"single", "multi", "joins", "orGroups", "largeIn"})
+    private String shape;
+
+    private StandardServiceRegistry registry;
+    private SessionFactory sessionFactory;
+    private EntityManager entityManager;
+    private CriteriaBuilder builder;
+    private Map<SearchOperator, Map<String, String>> searchParams;
+    private CustomSearchSpecification<BenchTrip> specification;
+
+    @Setup
+    public void setup() {
+        registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.URL, "jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1")
+                .applySetting(AvailableSettings.DIALECT, "org.hibernate.dialect.H2Dialect")
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(BenchVehicle.class)
+                .addAnnotatedClass(BenchDriver.class)
+                .addAnnotatedClass(BenchTrip.class)
+                .buildMetadata()
+                .buildSessionFactory();
+        entityManager = sessionFactory.createEntityManager();
+        builder = entityManager.getCriteriaBuilder();
+        String filters = Filters.get(shape);
+        searchParams = SearchHelper.parseSearchParams(filters.split("__")[0]);
+        specification = new CustomSearchSpecification<>(filters);
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        sessionFactory.close();
+        StandardServiceRegistryBuilder.destroy(registry);
+    }
+
+    @Benchmark
+    public Predicate[] getPredicatesFromSearchParams() {
+        CriteriaQuery<BenchTrip> query = builder.createQuery(BenchTrip.class);
+        Root<BenchTrip> root = query.from(BenchTrip.class);
+        return SearchHelper.getPredicatesFromSearchParams(searchParams, root, builder);
+    }
+
+    @Benchmark
+    public Predicate toPredicate() {
+        CriteriaQuery<BenchTrip> query = builder.createQuery(BenchTrip.class);
+        Root<BenchTrip> root = query.from(BenchTrip.class);
+        return specification.toPredicate(root, query, builder);
+    }
+}
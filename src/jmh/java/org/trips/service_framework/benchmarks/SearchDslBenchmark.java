@@ -0,0 +1,46 @@
+package org.trips.service_framework.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.trips.service_framework.models.FilterPlan;
+import org.trips.service_framework.models.SearchOperator;
+import org.trips.service_framework.utils.SearchHelper;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing cost of the filter DSL without the plan cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SearchDslBenchmark {
+    @Param({"single", "multi", "joins", "orGroups", "largeIn"})
+    private String shape;
+
+    private String filters;
+    private String firstGroup;
+
+    @Setup
+    public void setup() {
+        filters = Filters.get(shape);
+        firstGroup = filters.split("__")[0];
+    }
+
+    @Benchmark
+    public Map<SearchOperator, Map<String, String>> parseSearchParams() {
+        return SearchHelper.parseSearchParams(firstGroup);
+    }
+
+    @Benchmark
+    public FilterPlan compileFilterPlan() {
+        return FilterPlan.compile(filters);
+    }
+}
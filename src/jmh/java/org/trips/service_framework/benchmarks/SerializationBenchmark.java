@@ -0,0 +1,71 @@
+package org.trips.service_framework.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.trips.service_framework.codes.SuccessCodes;
+import org.trips.service_framework.configs.RestConfig;
+import org.trips.service_framework.models.responses.StatusResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a search response with the framework {@link com.fasterxml.jackson.databind.ObjectMapper}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+    @Param({"10", "1000", "10000"})
+    private int entities;
+
+    private ObjectWriter writer;
+    private BenchTripResponse response;
+
+    @Setup
+    public void setup() {
+        writer = new RestConfig().getObjectMapper().writer();
+        BenchVehicle vehicle = new BenchVehicle();
+        vehicle.setId(1L);
+        vehicle.setPlate("KA01AB1234");
+        BenchDriver driver = new BenchDriver();
+        driver.setId(1L);
+        driver.setName("driver");
+        driver.setCity("Pune");
+        driver.setVehicle(vehicle);
+        DateTime now = DateTime.now();
+        List<BenchTrip> trips = new ArrayList<>(entities);
+        for (int i = 0; i < entities; i++) {
+            BenchTrip trip = new BenchTrip();
+            trip.setId((long) i);
+            trip.setStatus(i % 2 == 0 ? "CREATED" : "ENDED");
+            trip.setCity("Pune");
+            trip.setFare(100 + i);
+            trip.setDriver(driver);
+            trip.setCreatedAt(now);
+            trip.setUpdatedAt(now);
+            trip.setCreatedBy("System");
+            trip.setUpdatedBy("System");
+            trips.add(trip);
+        }
+        response = new BenchTripResponse();
+        response.setTrips(trips);
+        response.setStatus(new StatusResponse(SuccessCodes.DATA_RETRIEVED_SUCCESSFULLY, entities));
+    }
+
+    @Benchmark
+    public void serialize() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), response);
+    }
+}
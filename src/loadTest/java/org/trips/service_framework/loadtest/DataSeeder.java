@@ -0,0 +1,42 @@
+package org.trips.service_framework.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Seeds drivers and trips with set based H2 statements, rows get the identity ids {@code 1..n}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DataSeeder {
+    static final String[] CITIES = {"Pune", "Delhi", "Mumbai", "Bangalore"};
+    static final String[] STATUSES = {"CREATED", "STARTED", "ENDED", "CANCELLED"};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void seed(int drivers, int rows) {
+        long start = System.currentTimeMillis();
+        jdbcTemplate.update("INSERT INTO load_drivers (name, city, created_at, created_by, updated_at, updated_by, version) " +
+                "SELECT CONCAT('driver', X), " + pick(CITIES, "X") + ", NOW(), 'System', NOW(), 'System', 0 " +
+                "FROM SYSTEM_RANGE(1, ?)", drivers);
+        int chunk = 500_000;
+        for (int from = 1; from <= rows; from += chunk) {
+            jdbcTemplate.update("INSERT INTO load_trips (status, city, fare, driver_id, created_at, created_by, updated_at, updated_by, version) " +
+                    "SELECT " + pick(STATUSES, "X") + ", " + pick(CITIES, "X / 4") + ", MOD(X * 7919, 1000), MOD(X, ?) + 1, " +
+                    "NOW(), 'System', NOW(), 'System', 0 FROM SYSTEM_RANGE(?, ?)", drivers, from, Math.min(from + chunk - 1, rows));
+        }
+        jdbcTemplate.execute("ANALYZE");
+        log.info("Seeded {} drivers and {} trips in {} ms", drivers, rows, System.currentTimeMillis() - start);
+    }
+
+    private static String pick(String[] values, String index) {
+        StringBuilder builder = new StringBuilder("CASE MOD(").append(index).append(", ").append(values.length).append(")");
+        for (int i = 0; i < values.length; i++) {
+            builder.append(" WHEN ").append(i).append(" THEN '").append(values[i]).append("'");
+        }
+        return builder.append(" END").toString();
+    }
+}
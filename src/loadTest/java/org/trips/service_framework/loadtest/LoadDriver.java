@@ -0,0 +1,21 @@
+package org.trips.service_framework.loadtest;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.trips.service_framework.models.entities.BaseEntity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "load_drivers")
+public class LoadDriver extends BaseEntity {
+    @Column(name = "name")
+    private String name;
+
+    @Column(name = "city")
+    private String city;
+}
@@ -0,0 +1,28 @@
+package org.trips.service_framework.loadtest;
+
+/**
+ * Operations of a load mix, {@code loadtest.mix} refers to them by name.
+ */
+public enum LoadOperation {
+    FIND("find"),
+    SEARCH("search"),
+    DEEP_SEARCH("deepSearch"),
+    INCLUDES("includes"),
+    SAVE("save"),
+    BULK_UPDATE("bulkUpdate");
+
+    public String name;
+
+    LoadOperation(String name) {
+        this.name = name;
+    }
+
+    public static LoadOperation value(String operation) {
+        for (LoadOperation loadOperation : LoadOperation.values()) {
+            if (loadOperation.name.equalsIgnoreCase(operation)) {
+                return loadOperation;
+            }
+        }
+        return null;
+    }
+}
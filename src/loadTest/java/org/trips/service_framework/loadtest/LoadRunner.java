@@ -0,0 +1,183 @@
+package org.trips.service_framework.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.trips.service_framework.exceptions.ServiceException;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Closed loop load generator: {@code concurrency} workers each send the next request of the mix as soon as the
+ * previous one completed, through the full HTTP, controller, service and database stack. Latencies recorded
+ * during the warmup are discarded.
+ */
+@Slf4j
+public class LoadRunner {
+    private static final String[] SEARCH_FILTERS = {
+            "status.eq:CREATED;city.eq:Pune",
+            "status.in:STARTED,ENDED;city.ne:Delhi",
+            "driver-city.eq:Delhi;status.eq:ENDED",
+            "city.like:Mum;status.ne:CANCELLED",
+            "status.eq:CREATED__city.eq:Bangalore;status.eq:ENDED"
+    };
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final String baseUrl;
+    private final LoadTestProperties properties;
+    private final LoadOperation[] schedule;
+    private final Map<LoadOperation, Recorder> recorders = new EnumMap<>(LoadOperation.class);
+    private final Map<LoadOperation, AtomicLong> errors = new EnumMap<>(LoadOperation.class);
+
+    public LoadRunner(String baseUrl, LoadTestProperties properties) {
+        this.baseUrl = baseUrl;
+        this.properties = properties;
+        this.schedule = getSchedule(properties.getMix());
+        for (LoadOperation operation : LoadOperation.values()) {
+            recorders.put(operation, new Recorder(TimeUnit.SECONDS.toMicros(60), 3));
+            errors.put(operation, new AtomicLong());
+        }
+    }
+
+    public List<OperationResult> run() throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(properties.getConcurrency());
+        long warmupEnd = System.nanoTime() + properties.getWarmup().toNanos();
+        long end = warmupEnd + properties.getDuration().toNanos();
+        for (int i = 0; i < properties.getConcurrency(); i++) {
+            workers.execute(() -> {
+                while (System.nanoTime() < end) {
+                    execute(schedule[ThreadLocalRandom.current().nextInt(schedule.length)]);
+                }
+            });
+        }
+        TimeUnit.NANOSECONDS.sleep(Math.max(0, warmupEnd - System.nanoTime()));
+        recorders.values().forEach(Recorder::reset);
+        errors.values().forEach(count -> count.set(0));
+        log.info("Warmup done, measuring for {}", properties.getDuration());
+        workers.shutdown();
+        workers.awaitTermination(properties.getDuration().toMillis() + TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS);
+
+        double seconds = properties.getDuration().toMillis() / 1000.0;
+        List<OperationResult> results = new ArrayList<>();
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        for (LoadOperation operation : LoadOperation.values()) {
+            Histogram histogram = recorders.get(operation).getIntervalHistogram();
+            long errorCount = errors.get(operation).get();
+            if (histogram.getTotalCount() + errorCount == 0)
+                continue;
+            total.add(histogram);
+            totalErrors += errorCount;
+            results.add(toResult(operation.name, histogram, errorCount, seconds));
+        }
+        results.add(toResult("total", total, totalErrors, seconds));
+        return results;
+    }
+
+    private void execute(LoadOperation operation) {
+        HttpRequest request = createRequest(operation, ThreadLocalRandom.current());
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() >= 400) {
+                errors.get(operation).incrementAndGet();
+                return;
+            }
+        } catch (Exception e) {
+            errors.get(operation).incrementAndGet();
+            return;
+        }
+        recorders.get(operation).recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+    }
+
+    private HttpRequest createRequest(LoadOperation operation, ThreadLocalRandom random) {
+        int fetchSize = properties.getFetchSize();
+        switch (operation) {
+            case FIND:
+                return get("/" + randomId(random));
+            case SEARCH:
+                return get("/search?fetchSize=" + fetchSize + "&filters=" + encode(SEARCH_FILTERS[random.nextInt(SEARCH_FILTERS.length)]));
+            case DEEP_SEARCH:
+                int pages = Math.max(1, properties.getRows() / fetchSize);
+                return get("/search?count=none&sortBy=id:asc&fetchSize=" + fetchSize + "&page=" + random.nextInt(pages / 2, pages)
+                        + "&filters=" + encode("city.ne:Pune"));
+            case INCLUDES:
+                return get("/search?count=estimated&includes=driver&fetchSize=" + fetchSize + "&filters=" + encode("status.eq:STARTED;city.eq:" + DataSeeder.CITIES[random.nextInt(DataSeeder.CITIES.length)]));
+            case SAVE:
+                return send("POST", "", String.format("{\"status\":\"CREATED\",\"city\":\"%s\",\"fare\":%d,\"driver\":{\"id\":%d}}",
+                        DataSeeder.CITIES[random.nextInt(DataSeeder.CITIES.length)], random.nextInt(1000), 1 + random.nextInt(properties.getDrivers())));
+            case BULK_UPDATE:
+                String ids = IntStream.range(0, 10).mapToObj(i -> String.valueOf(randomId(random))).collect(Collectors.joining(","));
+                return send("PATCH", "/bulk?filters=" + encode("id.in:" + ids), "{\"fare\":" + random.nextInt(1000) + "}");
+            default:
+                throw new ServiceException(String.format("%s is not supported", operation.name));
+        }
+    }
+
+    private long randomId(ThreadLocalRandom random) {
+        return 1 + random.nextInt(properties.getRows());
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(60)).GET().build();
+    }
+
+    private HttpRequest send(String method, String path, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static OperationResult toResult(String operation, Histogram histogram, long errors, double seconds) {
+        return new OperationResult(operation, histogram.getTotalCount(), errors, histogram.getTotalCount() / seconds,
+                toMillis(histogram.getValueAtPercentile(50)), toMillis(histogram.getValueAtPercentile(99)),
+                toMillis(histogram.getValueAtPercentile(99.9)), toMillis(histogram.getMaxValue()));
+    }
+
+    private static double toMillis(long micros) {
+        return micros / 1000.0;
+    }
+
+    /**
+     * Expands {@code find:40,search:20,...} into an array in which every operation occurs {@code weight} times.
+     */
+    private static LoadOperation[] getSchedule(String mix) {
+        Map<LoadOperation, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] operationAndWeight = entry.trim().split(":");
+            LoadOperation operation = LoadOperation.value(operationAndWeight[0]);
+            if (Objects.isNull(operation) || operationAndWeight.length != 2) {
+                throw new ServiceException(String.format("%s is not a valid mix entry", entry));
+            }
+            weights.put(operation, Integer.parseInt(operationAndWeight[1]));
+        }
+        return weights.entrySet().stream()
+                .flatMap(entry -> IntStream.range(0, entry.getValue()).mapToObj(i -> entry.getKey()))
+                .toArray(LoadOperation[]::new);
+    }
+}
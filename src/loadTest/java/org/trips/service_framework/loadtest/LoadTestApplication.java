@@ -0,0 +1,51 @@
+package org.trips.service_framework.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Boots {@link LoadTripController} on an in-memory H2 database in MySQL mode, seeds it and runs the configured
+ * operation mix against it, see {@link LoadTestProperties}. Results are logged and written as JSON.
+ */
+@Slf4j
+@SpringBootApplication(scanBasePackages = "org.trips.service_framework")
+@EnableConfigurationProperties(LoadTestProperties.class)
+public class LoadTestApplication {
+    public static void main(String[] args) throws Exception {
+        ConfigurableApplicationContext context = SpringApplication.run(LoadTestApplication.class, args);
+        try {
+            LoadTestProperties properties = context.getBean(LoadTestProperties.class);
+            context.getBean(DataSeeder.class).seed(properties.getDrivers(), properties.getRows());
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            log.info("Running {} with {} workers", properties.getMix(), properties.getConcurrency());
+            List<OperationResult> results = new LoadRunner("http://localhost:" + port + "/trips", properties).run();
+            report(results, properties.getOutput());
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void report(List<OperationResult> results, String output) throws Exception {
+        StringBuilder table = new StringBuilder(String.format("%n%-12s %10s %8s %10s %10s %10s %10s %10s",
+                "operation", "requests", "errors", "ops/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        for (OperationResult result : results) {
+            table.append(String.format("%n%-12s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f", result.getOperation(),
+                    result.getRequests(), result.getErrors(), result.getThroughput(), result.getP50(), result.getP99(),
+                    result.getP999(), result.getMax()));
+        }
+        log.info(table.toString());
+        File file = new File(output);
+        file.getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, results);
+        log.info("Results written to {}", file.getAbsolutePath());
+    }
+}
@@ -0,0 +1,27 @@
+package org.trips.service_framework.loadtest;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of a load run, passed as {@code -Ploadtest.<name>=<value>} to the {@code loadTest} task.
+ */
+@Data
+@ConfigurationProperties(prefix = "loadtest")
+public class LoadTestProperties {
+    private int rows = 2_000_000;
+    private int drivers = 10_000;
+    private int concurrency = 32;
+    private Duration warmup = Duration.ofSeconds(15);
+    private Duration duration = Duration.ofSeconds(60);
+    private int fetchSize = 50;
+
+    /**
+     * Comma separated {@code operation:weight} pairs, see {@link LoadOperation}.
+     */
+    private String mix = "find:40,search:20,deepSearch:10,includes:10,save:15,bulkUpdate:5";
+
+    private String output = "build/reports/loadtest/results.json";
+}
@@ -0,0 +1,35 @@
+package org.trips.service_framework.loadtest;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.trips.service_framework.models.entities.BaseEntity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "load_trips", indexes = {
+        @Index(name = "idx_load_trips_status_city", columnList = "status,city"),
+        @Index(name = "idx_load_trips_driver", columnList = "driver_id")
+})
+public class LoadTrip extends BaseEntity {
+    @Column(name = "status")
+    private String status;
+
+    @Column(name = "city")
+    private String city;
+
+    @Column(name = "fare")
+    private Integer fare;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "driver_id")
+    private LoadDriver driver;
+}
@@ -0,0 +1,22 @@
+package org.trips.service_framework.loadtest;
+
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.trips.service_framework.controllers.BaseController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/trips")
+public class LoadTripController extends BaseController<LoadTripResponse, LoadTrip> {
+    public LoadTripController(LoadTripService service) {
+        super(service);
+    }
+
+    @Override
+    protected LoadTripResponse createResponse(List<LoadTrip> entryList) {
+        LoadTripResponse response = new LoadTripResponse();
+        response.setTrips(entryList);
+        return response;
+    }
+}
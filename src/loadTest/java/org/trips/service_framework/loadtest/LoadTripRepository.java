@@ -0,0 +1,6 @@
+package org.trips.service_framework.loadtest;
+
+import org.trips.service_framework.models.repositories.BaseRepository;
+
+public interface LoadTripRepository extends BaseRepository<LoadTrip> {
+}
@@ -0,0 +1,13 @@
+package org.trips.service_framework.loadtest;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.trips.service_framework.models.responses.BaseResponse;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class LoadTripResponse extends BaseResponse {
+    private List<LoadTrip> trips;
+}
@@ -0,0 +1,24 @@
+package org.trips.service_framework.loadtest;
+
+import org.springframework.stereotype.Service;
+import org.trips.service_framework.services.BaseService;
+
+import java.util.Objects;
+
+@Service
+public class LoadTripService extends BaseService<LoadTrip> {
+    public LoadTripService(LoadTripRepository repository) {
+        super(repository, LoadTrip.class);
+    }
+
+    @Override
+    protected LoadTrip merge(LoadTrip entity, LoadTrip newEntity) {
+        if (Objects.nonNull(entity.getStatus()))
+            newEntity.setStatus(entity.getStatus());
+        if (Objects.nonNull(entity.getCity()))
+            newEntity.setCity(entity.getCity());
+        if (Objects.nonNull(entity.getFare()))
+            newEntity.setFare(entity.getFare());
+        return newEntity;
+    }
+}
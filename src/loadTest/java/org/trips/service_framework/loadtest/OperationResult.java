@@ -0,0 +1,18 @@
+package org.trips.service_framework.loadtest;
+
+import lombok.Value;
+
+/**
+ * Throughput and latency of one operation over the measured window, latencies in milliseconds.
+ */
+@Value
+public class OperationResult {
+    String operation;
+    long requests;
+    long errors;
+    double throughput;
+    double p50;
+    double p99;
+    double p999;
+    double max;
+}
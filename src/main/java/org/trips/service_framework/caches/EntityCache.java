@@ -0,0 +1,28 @@
+package org.trips.service_framework.caches;
+
+import org.trips.service_framework.models.entities.BaseEntity;
+
+import java.util.Collection;
+
+/**
+ * Cache consulted by {@code BaseService.find} for entities annotated with
+ * {@link org.trips.service_framework.caches.annotations.CachedEntity}.
+ */
+public interface EntityCache {
+    <T extends BaseEntity> T get(Class<T> entityClass, Long id);
+
+    /**
+     * Caches an entity read from the database unless a newer version is already cached.
+     */
+    void put(BaseEntity entity);
+
+    /**
+     * Caches an entity written in the current transaction once it commits and invalidates older copies on every node.
+     */
+    void refresh(BaseEntity entity);
+
+    /**
+     * Drops the given ids on every node once the current transaction commits, for writes that bypass the entities.
+     */
+    void evict(Class<? extends BaseEntity> entityClass, Collection<Long> ids);
+}
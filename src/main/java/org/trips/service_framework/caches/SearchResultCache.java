@@ -0,0 +1,172 @@
+package org.trips.service_framework.caches;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+import org.trips.service_framework.models.CountStrategy;
+import org.trips.service_framework.models.FilterClause;
+import org.trips.service_framework.models.FilterPlan;
+import org.trips.service_framework.utils.FilterPlanCache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Redis cache of search results, storing the matching ids and counts of a page rather than the rows.
+ * <p>
+ * Every entity class has a generation counter which is bumped after each committed write. Entries remember the
+ * generation read before the search ran and are ignored once it has moved on, so a write invalidates every
+ * cached search of that entity without scanning keys; stale entries simply expire.
+ * <p>
+ * Enabled with {@code service-framework.search-cache.enabled=true}, entries live for
+ * {@code service-framework.search-cache.ttl} (default 5 minutes).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "service-framework.search-cache", name = "enabled", havingValue = "true")
+public class SearchResultCache {
+    private static final String KEY_PREFIX = "sf:search:";
+    private static final String GENERATION_KEY_PREFIX = "sf:search-generation:";
+    private static final String VALUE_DELIMITER = "|";
+    private static final String IDS_DELIMITER = ",";
+    private static final String OR_DELIMITER = "__";
+    private static final String SEARCH_DELIMITER = ";";
+    private static final String NO_TOTAL = "-";
+    private static final long NO_GENERATION = -1L;
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+
+    public SearchResultCache(StringRedisTemplate redisTemplate,
+                             @Value("${service-framework.search-cache.ttl:PT5M}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+    }
+
+    public String getKey(Class<?> entityClass, String filters, Integer page, Integer fetchSize, String sortBy, CountStrategy countStrategy) {
+        String search = String.join(VALUE_DELIMITER, normalizeFilters(entityClass, filters), String.valueOf(page), String.valueOf(fetchSize),
+                StringUtils.defaultString(sortBy), countStrategy.name);
+        return KEY_PREFIX + entityClass.getName() + ":" + DigestUtils.md5DigestAsHex(search.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads the entry and the current generation of {@code entityClass} in one round trip.
+     */
+    public Lookup lookup(Class<?> entityClass, String key) {
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(Arrays.asList(key, getGenerationKey(entityClass)));
+            long generation = Objects.isNull(values.get(1)) ? 0L : Long.parseLong(values.get(1));
+            CachedSearch result = parse(values.get(0), generation);
+            return new Lookup(generation, result);
+        } catch (RuntimeException e) {
+            log.warn("Search cache lookup failed for {}", key, e);
+            return new Lookup(NO_GENERATION, null);
+        }
+    }
+
+    public void put(String key, Lookup lookup, List<Long> ids, Long total, boolean hasNext) {
+        if (lookup.getGeneration() == NO_GENERATION) {
+            return;
+        }
+        String value = String.join(VALUE_DELIMITER, String.valueOf(lookup.getGeneration()),
+                Objects.isNull(total) ? NO_TOTAL : String.valueOf(total), String.valueOf(hasNext),
+                ids.stream().map(String::valueOf).collect(Collectors.joining(IDS_DELIMITER)));
+        try {
+            redisTemplate.opsForValue().set(key, value, ttl);
+        } catch (RuntimeException e) {
+            log.warn("Search cache write failed for {}", key, e);
+        }
+    }
+
+    /**
+     * Invalidates every cached search of {@code entityClass} once the current transaction commits.
+     */
+    public void invalidate(Class<?> entityClass) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    incrementGeneration(entityClass);
+                }
+            });
+        } else {
+            incrementGeneration(entityClass);
+        }
+    }
+
+    private void incrementGeneration(Class<?> entityClass) {
+        try {
+            redisTemplate.opsForValue().increment(getGenerationKey(entityClass));
+        } catch (RuntimeException e) {
+            log.error("Search cache invalidation failed for {}", entityClass.getName(), e);
+        }
+    }
+
+    private String getGenerationKey(Class<?> entityClass) {
+        return GENERATION_KEY_PREFIX + entityClass.getName();
+    }
+
+    private CachedSearch parse(String value, long generation) {
+        if (Objects.isNull(value)) {
+            return null;
+        }
+        String[] parts = StringUtils.splitPreserveAllTokens(value, VALUE_DELIMITER);
+        if (parts.length != 4 || Long.parseLong(parts[0]) != generation) {
+            return null;
+        }
+        Long total = NO_TOTAL.equals(parts[1]) ? null : Long.valueOf(parts[1]);
+        List<Long> ids = new ArrayList<>();
+        for (String id : StringUtils.split(parts[3], IDS_DELIMITER)) {
+            ids.add(Long.valueOf(id));
+        }
+        return new CachedSearch(ids, total, Boolean.parseBoolean(parts[2]));
+    }
+
+    /**
+     * Filter clauses are AND-ed and groups OR-ed, so their order does not change the result. Clauses come from the
+     * compiled {@link FilterPlan}, so the key follows the same tokenization, escapes included, as the query; values
+     * are length prefixed so that delimiters inside them can not make two different filters collide.
+     */
+    private static String normalizeFilters(Class<?> entityClass, String filters) {
+        if (StringUtils.isEmpty(filters)) {
+            return StringUtils.EMPTY;
+        }
+        return FilterPlanCache.getInstance().get(entityClass, filters).getGroups().stream()
+                .map(group -> group.stream()
+                        .map(SearchResultCache::normalizeClause)
+                        .sorted()
+                        .collect(Collectors.joining(SEARCH_DELIMITER)))
+                .sorted()
+                .collect(Collectors.joining(OR_DELIMITER));
+    }
+
+    private static String normalizeClause(FilterClause clause) {
+        String clauseKey = clause.getKey() + "." + clause.getOperator().name;
+        return Objects.isNull(clause.getValue()) ? clauseKey : clauseKey + ":" + clause.getValue().length() + ":" + clause.getValue();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Lookup {
+        private final long generation;
+        private final CachedSearch result;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class CachedSearch {
+        private final List<Long> ids;
+        private final Long total;
+        private final boolean hasNext;
+    }
+}
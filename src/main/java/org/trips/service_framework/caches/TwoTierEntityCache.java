@@ -0,0 +1,256 @@
+package org.trips.service_framework.caches;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.SerializationUtils;
+import org.trips.service_framework.caches.annotations.CachedEntity;
+import org.trips.service_framework.models.entities.BaseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * {@link EntityCache} with an in-process Caffeine (W-TinyLFU) tier in front of Redis.
+ * <p>
+ * Entries carry the entity {@code @Version}: both tiers refuse to replace a cached copy with an older version,
+ * and writes are broadcast on {@link #INVALIDATION_TOPIC} so other nodes drop near copies older than the written
+ * version and re-read it from Redis. Copies are stored serialized, every hit returns a fresh instance.
+ * <p>
+ * Enabled with {@code service-framework.entity-cache.enabled=true}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "service-framework.entity-cache", name = "enabled", havingValue = "true")
+public class TwoTierEntityCache implements EntityCache, MessageListener {
+    public static final String INVALIDATION_TOPIC = "sf:entity-cache:invalidations";
+    private static final String KEY_PREFIX = "sf:entity:";
+    private static final String VERSION_FIELD = "v";
+    private static final String DATA_FIELD = "d";
+    private static final String MESSAGE_DELIMITER = "|";
+    private static final RedisScript<Long> PUT_IF_NEWER = new DefaultRedisScript<>(
+            "local current = redis.call('HGET', KEYS[1], 'v') " +
+                    "if current and tonumber(current) > tonumber(ARGV[1]) then return 0 end " +
+                    "redis.call('HMSET', KEYS[1], 'v', ARGV[1], 'd', ARGV[2]) " +
+                    "redis.call('PEXPIRE', KEYS[1], ARGV[3]) " +
+                    "return 1", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Cache<Long, CachedCopy>> nearCaches = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Counter[]> remoteCounters = new ConcurrentHashMap<>();
+
+    public TwoTierEntityCache(StringRedisTemplate redisTemplate, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry.getIfAvailable();
+    }
+
+    @Override
+    public <T extends BaseEntity> T get(Class<T> entityClass, Long id) {
+        Cache<Long, CachedCopy> nearCache = getNearCache(entityClass);
+        CachedCopy copy = nearCache.getIfPresent(id);
+        if (Objects.isNull(copy)) {
+            copy = getRemote(entityClass, id);
+            if (Objects.nonNull(copy)) {
+                putNear(nearCache, id, copy);
+            }
+        }
+        return Objects.isNull(copy) ? null : entityClass.cast(SerializationUtils.deserialize(copy.getPayload()));
+    }
+
+    @Override
+    public void put(BaseEntity entity) {
+        entity = (BaseEntity) Hibernate.unproxy(entity);
+        CachedCopy copy = toCopy(entity);
+        if (Objects.isNull(copy)) {
+            return;
+        }
+        Class<?> entityClass = Hibernate.getClass(entity);
+        putNear(getNearCache(entityClass), entity.getId(), copy);
+        putRemote(entityClass, entity.getId(), copy);
+    }
+
+    @Override
+    public void refresh(BaseEntity entity) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refreshNow(entity);
+                }
+            });
+        } else {
+            refreshNow(entity);
+        }
+    }
+
+    @Override
+    public void evict(Class<? extends BaseEntity> entityClass, Collection<Long> ids) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(entityClass, ids);
+                }
+            });
+        } else {
+            evictNow(entityClass, ids);
+        }
+    }
+
+    private void evictNow(Class<? extends BaseEntity> entityClass, Collection<Long> ids) {
+        Cache<Long, CachedCopy> nearCache = getNearCache(entityClass);
+        nearCache.invalidateAll(ids);
+        try {
+            redisTemplate.delete(ids.stream().map(id -> getKey(entityClass, id)).collect(Collectors.toList()));
+            for (Long id : ids) {
+                redisTemplate.convertAndSend(INVALIDATION_TOPIC, String.join(MESSAGE_DELIMITER,
+                        entityClass.getName(), String.valueOf(id), String.valueOf(Long.MAX_VALUE)));
+            }
+        } catch (RuntimeException e) {
+            log.error("Entity cache eviction failed for {}", entityClass.getSimpleName(), e);
+        }
+    }
+
+    private void refreshNow(BaseEntity entity) {
+        put(entity);
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_TOPIC, String.join(MESSAGE_DELIMITER,
+                    Hibernate.getClass(entity).getName(), String.valueOf(entity.getId()), String.valueOf(entity.getVersion())));
+        } catch (RuntimeException e) {
+            log.error("Entity cache invalidation failed for {}", entity.getId(), e);
+        }
+    }
+
+    /**
+     * Drops near copies older than the version written on another node.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\" + MESSAGE_DELIMITER);
+        if (parts.length != 3) {
+            return;
+        }
+        Cache<Long, CachedCopy> nearCache = nearCaches.get(parts[0]);
+        if (Objects.nonNull(nearCache)) {
+            nearCache.asMap().computeIfPresent(Long.valueOf(parts[1]), (id, copy) -> copy.getVersion() < Long.parseLong(parts[2]) ? null : copy);
+        }
+    }
+
+    private void putNear(Cache<Long, CachedCopy> nearCache, Long id, CachedCopy copy) {
+        nearCache.asMap().merge(id, copy, (current, candidate) -> candidate.getVersion() >= current.getVersion() ? candidate : current);
+    }
+
+    private CachedCopy getRemote(Class<?> entityClass, Long id) {
+        Counter[] counters = getRemoteCounters(entityClass);
+        try {
+            List<Object> values = redisTemplate.opsForHash().multiGet(getKey(entityClass, id), Arrays.asList(VERSION_FIELD, DATA_FIELD));
+            if (Objects.isNull(values.get(0)) || Objects.isNull(values.get(1))) {
+                increment(counters[1]);
+                return null;
+            }
+            increment(counters[0]);
+            return new CachedCopy(Long.parseLong((String) values.get(0)), Base64.getDecoder().decode((String) values.get(1)));
+        } catch (RuntimeException e) {
+            log.warn("Entity cache lookup failed for {} {}", entityClass.getSimpleName(), id, e);
+            return null;
+        }
+    }
+
+    private void putRemote(Class<?> entityClass, Long id, CachedCopy copy) {
+        try {
+            long ttl = Duration.ofSeconds(getConfig(entityClass).remoteTtlSeconds()).toMillis();
+            redisTemplate.execute(PUT_IF_NEWER, List.of(getKey(entityClass, id)), String.valueOf(copy.getVersion()),
+                    Base64.getEncoder().encodeToString(copy.getPayload()), String.valueOf(ttl));
+        } catch (RuntimeException e) {
+            log.warn("Entity cache write failed for {} {}", entityClass.getSimpleName(), id, e);
+        }
+    }
+
+    private CachedCopy toCopy(BaseEntity entity) {
+        if (Objects.isNull(entity.getId()) || Objects.isNull(entity.getVersion())) {
+            return null;
+        }
+        try {
+            return new CachedCopy(entity.getVersion(), SerializationUtils.serialize(entity));
+        } catch (IllegalArgumentException e) {
+            log.warn("Entity {} {} can not be cached", entity.getClass().getSimpleName(), entity.getId(), e);
+            return null;
+        }
+    }
+
+    private Cache<Long, CachedCopy> getNearCache(Class<?> entityClass) {
+        return nearCaches.computeIfAbsent(entityClass.getName(), name -> {
+            Class<?> clazz = entityClass;
+            CachedEntity config = getConfig(clazz);
+            Cache<Long, CachedCopy> cache = Caffeine.newBuilder()
+                    .maximumSize(config.maximumSize())
+                    .expireAfterWrite(Duration.ofSeconds(config.nearTtlSeconds()))
+                    .recordStats()
+                    .build();
+            if (Objects.nonNull(meterRegistry)) {
+                CaffeineCacheMetrics.monitor(meterRegistry, cache, "entity." + clazz.getSimpleName());
+            }
+            return cache;
+        });
+    }
+
+    private Counter[] getRemoteCounters(Class<?> entityClass) {
+        if (Objects.isNull(meterRegistry)) {
+            return new Counter[2];
+        }
+        return remoteCounters.computeIfAbsent(entityClass, clazz -> new Counter[]{
+                meterRegistry.counter("entity.cache.remote.requests", "entity", clazz.getSimpleName(), "result", "hit"),
+                meterRegistry.counter("entity.cache.remote.requests", "entity", clazz.getSimpleName(), "result", "miss")
+        });
+    }
+
+    private static void increment(Counter counter) {
+        if (Objects.nonNull(counter)) {
+            counter.increment();
+        }
+    }
+
+    private static CachedEntity getConfig(Class<?> entityClass) {
+        CachedEntity config = entityClass.getAnnotation(CachedEntity.class);
+        if (Objects.isNull(config)) {
+            throw new IllegalArgumentException(entityClass.getName() + " is not annotated with @CachedEntity");
+        }
+        return config;
+    }
+
+    private static String getKey(Class<?> entityClass, Long id) {
+        return KEY_PREFIX + entityClass.getName() + ":" + id;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class CachedCopy {
+        private final long version;
+        private final byte[] payload;
+    }
+}
@@ -0,0 +1,21 @@
+package org.trips.service_framework.caches.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an entity whose {@code BaseService.find} results are kept in the {@link org.trips.service_framework.caches.EntityCache}.
+ * Intended for read-mostly reference data; cached instances are detached, so lazy associations that were not
+ * loaded when the entity was cached can not be initialised later.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CachedEntity {
+    long maximumSize() default 10_000;
+
+    long nearTtlSeconds() default 60;
+
+    long remoteTtlSeconds() default 600;
+}
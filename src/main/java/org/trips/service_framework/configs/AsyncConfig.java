@@ -0,0 +1,36 @@
+package org.trips.service_framework.configs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Timeout of async requests such as the {@code CompletableFuture} endpoints of {@code AsyncBaseController}, replacing
+ * the servlet container's default (30 seconds on Tomcat). Set with {@code service-framework.async.timeout}, default
+ * 5 minutes; zero or a negative duration disables the timeout.
+ */
+@Configuration
+public class AsyncConfig implements WebMvcConfigurer {
+    private static final long NO_TIMEOUT = -1L;
+
+    private final Duration timeout;
+
+    public AsyncConfig(@Value("${service-framework.async.timeout:PT5M}") Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(toTimeoutMillis(timeout));
+    }
+
+    /**
+     * Async timeout in milliseconds, {@code -1} (no timeout) for zero or negative durations.
+     */
+    public static long toTimeoutMillis(Duration timeout) {
+        return timeout.isZero() || timeout.isNegative() ? NO_TIMEOUT : timeout.toMillis();
+    }
+}
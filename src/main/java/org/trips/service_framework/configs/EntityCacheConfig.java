@@ -0,0 +1,24 @@
+package org.trips.service_framework.configs;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.trips.service_framework.caches.TwoTierEntityCache;
+
+/**
+ * Subscribes the {@link TwoTierEntityCache} to invalidations published by other nodes.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "service-framework.entity-cache", name = "enabled", havingValue = "true")
+public class EntityCacheConfig {
+    @Bean
+    public RedisMessageListenerContainer entityCacheListenerContainer(RedisConnectionFactory connectionFactory, TwoTierEntityCache entityCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(entityCache, new ChannelTopic(TwoTierEntityCache.INVALIDATION_TOPIC));
+        return container;
+    }
+}
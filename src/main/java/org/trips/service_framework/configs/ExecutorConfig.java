@@ -0,0 +1,20 @@
+package org.trips.service_framework.configs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.trips.service_framework.utils.FrameworkExecutors;
+
+/**
+ * Sizes of the framework executors, see {@link FrameworkExecutors}.
+ */
+@Configuration
+public class ExecutorConfig {
+    @Bean(destroyMethod = "shutdown")
+    public FrameworkExecutors frameworkExecutors(@Value("${service-framework.batch-fetch.pool-size:4}") int batchFetchPoolSize,
+                                                 @Value("${service-framework.batch-fetch.queue-capacity:64}") int batchFetchQueueCapacity,
+                                                 @Value("${service-framework.async.max-concurrency:200}") int asyncMaxConcurrency,
+                                                 @Value("${service-framework.async.queue-capacity:1000}") int asyncQueueCapacity) {
+        return new FrameworkExecutors(batchFetchPoolSize, batchFetchQueueCapacity, asyncMaxConcurrency, asyncQueueCapacity);
+    }
+}
@@ -1,5 +1,7 @@
 package org.trips.service_framework.configs;
 
+import io.grpc.Contexts;
+import io.grpc.ForwardingServerCallListener;
 import org.trips.service_framework.utils.Context;
 import io.grpc.Metadata;
 import io.grpc.ServerCall;
@@ -15,20 +17,72 @@ import org.springframework.util.StringUtils;
  */
 @Configuration
 public class GrpcConfig {
+    private static final Metadata.Key<String> X_REQUESTED_BY = Metadata.Key.of("X-Requested-By", Metadata.ASCII_STRING_MARSHALLER);
+
+    /**
+     * Binds the caller to the {@link io.grpc.Context} of the call, and to {@link Context} on whichever thread runs
+     * each listener callback, restoring that thread's previous context once the callback returns.
+     */
     @Bean
     @GRpcGlobalInterceptor
     public ServerInterceptor globalInterceptor() {
         return new ServerInterceptor() {
             @Override
             public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
-                Metadata.Key<String> xRequestedByHeaderKey = Metadata.Key.of("X-Requested-By", Metadata.ASCII_STRING_MARSHALLER);
                 String requestId = "System";
-                if (headers.containsKey(xRequestedByHeaderKey) && !StringUtils.isEmpty(headers.get(xRequestedByHeaderKey))) {
-                    requestId = headers.get(xRequestedByHeaderKey);
+                if (headers.containsKey(X_REQUESTED_BY) && !StringUtils.isEmpty(headers.get(X_REQUESTED_BY))) {
+                    requestId = headers.get(X_REQUESTED_BY);
+                }
+                Context.Snapshot snapshot = Context.Snapshot.of(null, requestId, null);
+                io.grpc.Context grpcContext = io.grpc.Context.current().withValue(Context.GRPC_KEY, snapshot);
+                try (Context.Scope ignored = Context.restore(snapshot)) {
+                    return new ContextListener<>(Contexts.interceptCall(grpcContext, call, headers, next), snapshot);
                 }
-                Context.setUserId(requestId);
-                return next.startCall(call, headers);
             }
         };
     }
+
+    private static class ContextListener<ReqT> extends ForwardingServerCallListener.SimpleForwardingServerCallListener<ReqT> {
+        private final Context.Snapshot snapshot;
+
+        ContextListener(ServerCall.Listener<ReqT> delegate, Context.Snapshot snapshot) {
+            super(delegate);
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public void onMessage(ReqT message) {
+            try (Context.Scope ignored = Context.restore(snapshot)) {
+                super.onMessage(message);
+            }
+        }
+
+        @Override
+        public void onHalfClose() {
+            try (Context.Scope ignored = Context.restore(snapshot)) {
+                super.onHalfClose();
+            }
+        }
+
+        @Override
+        public void onCancel() {
+            try (Context.Scope ignored = Context.restore(snapshot)) {
+                super.onCancel();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            try (Context.Scope ignored = Context.restore(snapshot)) {
+                super.onComplete();
+            }
+        }
+
+        @Override
+        public void onReady() {
+            try (Context.Scope ignored = Context.restore(snapshot)) {
+                super.onReady();
+            }
+        }
+    }
 }
@@ -0,0 +1,91 @@
+package org.trips.service_framework.configs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.trips.service_framework.jfr.SerializationEvent;
+import org.trips.service_framework.utils.FilterPlanCache;
+import org.trips.service_framework.utils.ServiceMetrics;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registers framework level meters with the actuator registry.
+ */
+@Configuration
+public class MetricsConfig {
+    @Bean
+    public MeterBinder filterPlanCacheMetrics() {
+        return FilterPlanCache.getInstance();
+    }
+
+    @Bean
+    public ServiceMetrics serviceMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ServiceMetrics(meterRegistry.getIfAvailable());
+    }
+
+    /**
+     * Replaces the JSON message converters with ones recording response serialization, keeping their
+     * {@link ObjectMapper}: as {@code controller.serialization} tagged by response type when a registry is present,
+     * and always as a {@link SerializationEvent} for flight recordings.
+     */
+    @Bean
+    public WebMvcConfigurer serializationMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+                MeterRegistry registry = meterRegistry.getIfAvailable();
+                converters.replaceAll(converter -> converter.getClass() == MappingJackson2HttpMessageConverter.class
+                        ? new TimedJacksonConverter(((MappingJackson2HttpMessageConverter) converter).getObjectMapper(), registry)
+                        : converter);
+            }
+        };
+    }
+
+    private static class TimedJacksonConverter extends MappingJackson2HttpMessageConverter {
+        private final MeterRegistry registry;
+
+        TimedJacksonConverter(ObjectMapper objectMapper, MeterRegistry registry) {
+            super(objectMapper);
+            this.registry = registry;
+        }
+
+        @Override
+        protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+            String typeName = Objects.isNull(object) ? "null" : object.getClass().getSimpleName();
+            SerializationEvent event = new SerializationEvent();
+            event.begin();
+            long start = System.nanoTime();
+            try {
+                super.writeInternal(object, type, outputMessage);
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.type = typeName;
+                    event.commit();
+                }
+                if (Objects.nonNull(registry)) {
+                    Timer.builder("controller.serialization")
+                            .description("Time spent writing JSON responses")
+                            .tag("type", typeName)
+                            .publishPercentileHistogram()
+                            .register(registry)
+                            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.trips.service_framework.configs;
+
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.boot.spi.MetadataBuilderContributor;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.trips.service_framework.utils.SearchHelper;
+
+/**
+ * Registers the SQL functions used by search operators. An application setting its own
+ * {@code hibernate.metadata_builder_contributor} has to register {@link SearchHelper#MATCH_AGAINST_FUNCTION} itself.
+ */
+@Configuration
+public class SearchConfig {
+    @Bean
+    public HibernatePropertiesCustomizer searchFunctions() {
+        return properties -> properties.putIfAbsent("hibernate.metadata_builder_contributor", new SearchFunctions());
+    }
+
+    public static class SearchFunctions implements MetadataBuilderContributor {
+        @Override
+        public void contribute(MetadataBuilder metadataBuilder) {
+            metadataBuilder.applySqlFunction(SearchHelper.MATCH_AGAINST_FUNCTION,
+                    new SQLFunctionTemplate(StandardBasicTypes.DOUBLE, "match (?1) against (?2 in boolean mode)"));
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package org.trips.service_framework.controllers;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.trips.service_framework.aop.Authenticate;
+import org.trips.service_framework.models.entities.BaseEntity;
+import org.trips.service_framework.models.entries.AggregateEntry;
+import org.trips.service_framework.models.entries.SearchEntry;
+import org.trips.service_framework.models.responses.AggregateResponse;
+import org.trips.service_framework.models.responses.BaseResponse;
+import org.trips.service_framework.services.BaseService;
+import org.trips.service_framework.utils.Context;
+import org.trips.service_framework.utils.FrameworkExecutors;
+
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Opt-in asynchronous variant of {@link BaseController} with the same endpoints. Every endpoint returns a
+ * {@link CompletableFuture} completed on {@link FrameworkExecutors#getControllerAsyncExecutor()}, so the servlet
+ * thread is released while the request waits on the database. {@link Context} fields set on the servlet thread,
+ * e.g. by the {@link Authenticate} aspect, are carried over to the executor thread.
+ */
+@Getter
+public abstract class AsyncBaseController<R extends BaseResponse, M extends BaseEntity> {
+    protected final BaseService<M> service;
+    private final BaseController<R, M> controller;
+
+    @Autowired
+    private FrameworkExecutors frameworkExecutors;
+
+    protected AsyncBaseController(BaseService<M> service) {
+        this.service = service;
+        this.controller = new BaseController<R, M>(service) {
+            @Override
+            protected R createResponse(List<M> entryList) {
+                return AsyncBaseController.this.createResponse(entryList);
+            }
+
+            @Override
+            protected Object createStreamRow(M entry) {
+                return AsyncBaseController.this.createStreamRow(entry);
+            }
+        };
+    }
+
+    protected abstract R createResponse(List<M> entryList);
+
+    protected Object createStreamRow(M entry) {
+        return entry;
+    }
+
+    @Autowired
+    void autowireController(AutowireCapableBeanFactory beanFactory) {
+        beanFactory.autowireBean(controller);
+    }
+
+    @Authenticate
+    @RequestMapping(value = "/{id}", method = RequestMethod.GET)
+    public CompletableFuture<R> findById(@PathVariable Long id) {
+        return supplyAsync(() -> controller.findById(id));
+    }
+
+    @Authenticate
+    @RequestMapping(value = "/batch", method = RequestMethod.GET)
+    public CompletableFuture<R> findByIds(@RequestParam(value = "ids") List<Long> ids) {
+        return supplyAsync(() -> controller.findByIds(ids));
+    }
+
+    @Authenticate
+    @RequestMapping(value = "", method = RequestMethod.POST)
+    public CompletableFuture<R> save(@RequestBody M input) {
+        return supplyAsync(() -> controller.save(input));
+    }
+
+    @Authenticate
+    @RequestMapping(value = "/{id}", method = RequestMethod.PUT)
+    public CompletableFuture<R> update(@RequestBody M input, @PathVariable Long id) {
+        return supplyAsync(() -> controller.update(input, id));
+    }
+
+    @Authenticate
+    @RequestMapping(value = "/{id}", method = RequestMethod.DELETE)
+    public CompletableFuture<R> delete(@PathVariable Long id) {
+        return supplyAsync(() -> controller.delete(id));
+    }
+
+    @Authenticate
+    @RequestMapping(value = "/bulk", method = RequestMethod.PUT)
+    public CompletableFuture<R> bulkUpdate(@RequestBody List<M> entries) {
+        return supplyAsync(() -> controller.bulkUpdate(entries));
+    }
+
+    @Authenticate
+    @RequestMapping(value = "/bulk", method = RequestMethod.PATCH)
+    public CompletableFuture<R> bulkPatch(@RequestParam(value = "filters") String filters,
+                                          @RequestParam(value = "dryRun", defaultValue = "false", required = false) Boolean dryRun,
+                                          @RequestBody Map<String, Object> input) {
+        return supplyAsync(() -> controller.bulkPatch(filters, dryRun, input));
+    }
+
+    @Authenticate
+    @RequestMapping(value = "/bulk", method = RequestMethod.DELETE)
+    public CompletableFuture<R> bulkDelete(@RequestParam(value = "filters") String filters,
+                                           @RequestParam(value = "dryRun", defaultValue = "false", required = false) Boolean dryRun) {
+        return supplyAsync(() -> controller.bulkDelete(filters, dryRun));
+    }
+
+    @Authenticate
+    @RequestMapping(value = "/bulk/upsert", method = RequestMethod.PUT)
+    public CompletableFuture<R> bulkUpsert(@RequestBody List<M> entries) {
+        return supplyAsync(() -> controller.bulkUpsert(entries));
+    }
+
+    @Authenticate
+    @RequestMapping(value = "/search", method = RequestMethod.GET)
+    public CompletableFuture<R> search(@RequestParam(value = "filters", required = false) String filters,
+                                       @RequestParam(value = "page", defaultValue = "0", required = false) Integer page,
+                                       @RequestParam(value = "fetchSize", defaultValue = "1000", required = false) Integer fetchSize,
+                                       @RequestParam(value = "sortBy", required = false) String sortBy,
+                                       @RequestParam(value = "includes", required = false) String includes,
+                                       @RequestParam(value = "cursor", required = false) String cursor,
+                                       @RequestParam(value = "count", required = false) String count,
+                                       @RequestParam(value = "fields", required = false) String fields) {
+        return supplyAsync(() -> controller.search(filters, page, fetchSize, sortBy, includes, cursor, count, fields));
+    }
+
+    /**
+     * Already asynchronous, the body is written on the MVC task executor under {@code service-framework.stream.timeout}
+     * rather than the async request timeout.
+     */
+    @Authenticate
+    @RequestMapping(value = "/search/stream", method = RequestMethod.GET, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> streamSearch(@RequestParam(value = "filters", required = false) String filters,
+                                           @RequestParam(value = "sortBy", required = false) String sortBy,
+                                           @RequestParam(value = "includes", required = false) String includes,
+                                           HttpServletResponse response) throws Exception {
+        return controller.streamSearch(filters, sortBy, includes, response);
+    }
+
+    @Authenticate
+    @RequestMapping(value = "/search", method = RequestMethod.POST)
+    public CompletableFuture<R> customSearch(@RequestBody SearchEntry searchEntry) {
+        return supplyAsync(() -> controller.customSearch(searchEntry));
+    }
+
+    @Authenticate
+    @RequestMapping(value = "/aggregate", method = RequestMethod.POST)
+    public CompletableFuture<AggregateResponse> aggregate(@Valid @RequestBody AggregateEntry aggregateEntry) {
+        return supplyAsync(() -> controller.aggregate(aggregateEntry));
+    }
+
+    /**
+     * Runs {@code call} on the async executor with the caller's {@link Context}, restoring the worker's own afterwards.
+     * Checked exceptions complete the future exceptionally and reach the exception handlers unwrapped.
+     */
+    protected <T> CompletableFuture<T> supplyAsync(Call<T> call) {
+        return CompletableFuture.supplyAsync(Context.wrap(() -> {
+            try {
+                return call.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }), frameworkExecutors.getControllerAsyncExecutor());
+    }
+
+    @FunctionalInterface
+    protected interface Call<T> {
+        T call() throws Exception;
+    }
+}
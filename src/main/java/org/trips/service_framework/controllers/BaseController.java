@@ -1,21 +1,52 @@
 package org.trips.service_framework.controllers;
 
 import org.trips.service_framework.aop.Authenticate;
+import org.trips.service_framework.configs.AsyncConfig;
+import org.trips.service_framework.exceptions.ServiceException;
+import org.trips.service_framework.models.AggregateResult;
+import org.trips.service_framework.models.CountStrategy;
+import org.trips.service_framework.models.CursorSlice;
 import org.trips.service_framework.services.BaseService;
 import org.trips.service_framework.codes.SuccessCodes;
 import org.trips.service_framework.models.entities.BaseEntity;
+import org.trips.service_framework.models.entries.AggregateEntry;
 import org.trips.service_framework.models.entries.SearchEntry;
+import org.trips.service_framework.models.responses.AggregateResponse;
 import org.trips.service_framework.models.responses.BaseResponse;
 import org.trips.service_framework.models.responses.StatusResponse;
+import org.trips.service_framework.utils.SearchHelper;
+import org.trips.service_framework.utils.ServiceMetrics;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Created By Abhinav Tripathi
@@ -26,23 +57,57 @@ import java.util.Objects;
 public abstract class BaseController<R extends BaseResponse, M extends BaseEntity> {
     protected final BaseService<M> service;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired(required = false)
+    private ServiceMetrics serviceMetrics;
+
+    /**
+     * Timeout of {@code /search/stream}, which can run far longer than other async requests. Zero, the default,
+     * disables it.
+     */
+    @Value("${service-framework.stream.timeout:PT0S}")
+    private Duration streamTimeout;
+
     protected abstract R createResponse(List<M> entryList);
 
+    /**
+     * Object written as one NDJSON line by {@link #streamSearch}; defaults to the entity itself.
+     */
+    protected Object createStreamRow(M entry) {
+        return entry;
+    }
+
     @Authenticate
     @RequestMapping(value = "/{id}", method = RequestMethod.GET)
     public R findById(@PathVariable Long id) throws RuntimeException {
         M result = service.find(id);
-        R response = createResponse(Collections.singletonList(result));
+        R response = buildResponse("findById", Collections.singletonList(result));
         response.setStatus(new StatusResponse(SuccessCodes.DATA_RETRIEVED_SUCCESSFULLY, Objects.nonNull(result) ? 1 : 0));
         log.info("Data retrieved successfully {}", response);
         return response;
     }
 
+    @Authenticate
+    @RequestMapping(value = "/batch", method = RequestMethod.GET)
+    public R findByIds(@RequestParam(value = "ids") List<Long> ids) throws RuntimeException {
+        List<M> results = service.findAll(ids);
+        Set<Long> foundIds = results.stream().map(BaseEntity::getId).collect(Collectors.toSet());
+        R response = buildResponse("findByIds", results);
+        StatusResponse status = new StatusResponse(SuccessCodes.DATA_RETRIEVED_SUCCESSFULLY, results.size());
+        List<Long> missingIds = ids.stream().filter(id -> Objects.nonNull(id) && !foundIds.contains(id)).distinct().collect(Collectors.toList());
+        if (!missingIds.isEmpty())
+            status.setMissingIds(missingIds);
+        response.setStatus(status);
+        return response;
+    }
+
     @Authenticate
     @RequestMapping(value = "", method = RequestMethod.POST)
     public R save(@RequestBody M input) throws Exception {
         M result = getService().save(input);
-        R response = createResponse(Collections.singletonList(result));
+        R response = buildResponse("save", Collections.singletonList(result));
         response.setStatus(new StatusResponse(SuccessCodes.CREATED, 1));
         return response;
     }
@@ -51,7 +116,7 @@ public abstract class BaseController<R extends BaseResponse, M extends BaseEntit
     @RequestMapping(value = "/{id}", method = RequestMethod.PUT)
     public R update(@RequestBody M input, @PathVariable Long id) throws Exception {
         M result = getService().update(input, id);
-        R response = createResponse(Collections.singletonList(result));
+        R response = buildResponse("update", Collections.singletonList(result));
         response.setStatus(new StatusResponse(SuccessCodes.OK, 1));
         return response;
     }
@@ -60,7 +125,7 @@ public abstract class BaseController<R extends BaseResponse, M extends BaseEntit
     @RequestMapping(value = "/{id}", method = RequestMethod.DELETE)
     public R delete(@PathVariable Long id) throws Exception {
         M result = getService().delete(id);
-        R response = createResponse(Collections.singletonList(result));
+        R response = buildResponse("delete", Collections.singletonList(result));
         response.setStatus(new StatusResponse(SuccessCodes.OK, 1));
         return response;
     }
@@ -69,30 +134,159 @@ public abstract class BaseController<R extends BaseResponse, M extends BaseEntit
     @RequestMapping(value = "/bulk", method = RequestMethod.PUT)
     public R bulkUpdate(@RequestBody List<M> entries) throws Exception {
         List<M> updatedEntries = getService().bulkCreateOrUpdate(entries);
-        R response = createResponse(updatedEntries);
+        R response = buildResponse("bulkUpdate", updatedEntries);
         response.setStatus(new StatusResponse(SuccessCodes.OK, updatedEntries.size()));
         return response;
     }
 
+    @Authenticate
+    @RequestMapping(value = "/bulk", method = RequestMethod.PATCH)
+    public R bulkPatch(@RequestParam(value = "filters") String filters,
+                       @RequestParam(value = "dryRun", defaultValue = "false", required = false) Boolean dryRun,
+                       @RequestBody Map<String, Object> input) throws Exception {
+        long count = getService().bulkUpdate(filters, toAttributeValues(input), dryRun);
+        R response = buildResponse("bulkPatch", Collections.emptyList());
+        response.setStatus(new StatusResponse(SuccessCodes.OK, Math.toIntExact(count)));
+        return response;
+    }
+
+    @Authenticate
+    @RequestMapping(value = "/bulk", method = RequestMethod.DELETE)
+    public R bulkDelete(@RequestParam(value = "filters") String filters,
+                        @RequestParam(value = "dryRun", defaultValue = "false", required = false) Boolean dryRun) throws Exception {
+        long count = getService().bulkDelete(filters, dryRun);
+        R response = buildResponse("bulkDelete", Collections.emptyList());
+        response.setStatus(new StatusResponse(SuccessCodes.OK, Math.toIntExact(count)));
+        return response;
+    }
+
+    @Authenticate
+    @RequestMapping(value = "/bulk/upsert", method = RequestMethod.PUT)
+    public R bulkUpsert(@RequestBody List<M> entries) throws Exception {
+        List<Long> ids = getService().bulkUpsert(entries);
+        R response = buildResponse("bulkUpsert", Collections.emptyList());
+        StatusResponse status = new StatusResponse(SuccessCodes.OK, ids.size());
+        status.setIds(ids);
+        response.setStatus(status);
+        return response;
+    }
+
     @Authenticate
     @RequestMapping(value = "/search", method = RequestMethod.GET)
     public R search(@RequestParam(value = "filters", required = false) String filters,
                     @RequestParam(value = "page", defaultValue = "0", required = false) Integer page,
                     @RequestParam(value = "fetchSize", defaultValue = "1000", required = false) Integer fetchSize,
                     @RequestParam(value = "sortBy", required = false) String sortBy,
-                    @RequestParam(value = "includes", required = false) String includes) throws Exception {
-        Page<M> searchResults = service.search(filters, page, fetchSize, sortBy, includes);
-        R response = createResponse(searchResults.getContent());
-        response.setStatus(new StatusResponse(SuccessCodes.DATA_RETRIEVED_SUCCESSFULLY, Long.valueOf(searchResults.getTotalElements()).intValue()));
-        return response;
+                    @RequestParam(value = "includes", required = false) String includes,
+                    @RequestParam(value = "cursor", required = false) String cursor,
+                    @RequestParam(value = "count", required = false) String count,
+                    @RequestParam(value = "fields", required = false) String fields) throws Exception {
+        if (Objects.nonNull(cursor)) {
+            return createCursorResponse(service.searchByCursor(filters, cursor, fetchSize, sortBy, includes));
+        }
+        CountStrategy countStrategy = SearchHelper.getCountStrategy(count);
+        Slice<M> searchResults = StringUtils.hasText(fields)
+                ? service.searchFields(filters, page, fetchSize, sortBy, fields, countStrategy)
+                : service.search(filters, page, fetchSize, sortBy, includes, countStrategy);
+        return createSearchResponse(searchResults, countStrategy);
+    }
+
+    @Authenticate
+    @RequestMapping(value = "/search/stream", method = RequestMethod.GET, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> streamSearch(@RequestParam(value = "filters", required = false) String filters,
+                                           @RequestParam(value = "sortBy", required = false) String sortBy,
+                                           @RequestParam(value = "includes", required = false) String includes,
+                                           HttpServletResponse response) throws Exception {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return new WebAsyncTask<>(AsyncConfig.toTimeoutMillis(streamTimeout), () -> {
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream());
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            try {
+                service.stream(filters, sortBy, includes, entry -> {
+                    try {
+                        writer.writeValue(generator, createStreamRow(entry));
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } finally {
+                generator.close();
+            }
+            return null;
+        });
     }
 
     @Authenticate
     @RequestMapping(value = "/search", method = RequestMethod.POST)
     public R customSearch(@RequestBody SearchEntry searchEntry) throws Exception {
-        Page<M> searchResults = service.search(searchEntry);
-        R response = createResponse(searchResults.getContent());
-        response.setStatus(new StatusResponse(SuccessCodes.DATA_RETRIEVED_SUCCESSFULLY, Long.valueOf(searchResults.getTotalElements()).intValue()));
+        if (Objects.nonNull(searchEntry.getCursor())) {
+            return createCursorResponse(service.searchByCursor(searchEntry));
+        }
+        CountStrategy countStrategy = SearchHelper.getCountStrategy(searchEntry.getCount());
+        Slice<M> searchResults = StringUtils.hasText(searchEntry.getFields())
+                ? service.searchFields(searchEntry.getFilters(), searchEntry.getPage(), searchEntry.getFetchSize(),
+                searchEntry.getSortBy(), searchEntry.getFields(), countStrategy)
+                : service.search(searchEntry.getFilters(), searchEntry.getPage(), searchEntry.getFetchSize(),
+                searchEntry.getSortBy(), searchEntry.getIncludes(), countStrategy);
+        return createSearchResponse(searchResults, countStrategy);
+    }
+
+    @Authenticate
+    @RequestMapping(value = "/aggregate", method = RequestMethod.POST)
+    public AggregateResponse aggregate(@Valid @RequestBody AggregateEntry aggregateEntry) throws Exception {
+        AggregateResult result = service.aggregate(aggregateEntry);
+        AggregateResponse response = AggregateResponse.builder()
+                .groups(result.getGroups())
+                .facets(result.getFacets())
+                .build();
+        response.setStatus(new StatusResponse(SuccessCodes.DATA_RETRIEVED_SUCCESSFULLY, result.getGroups().size()));
+        return response;
+    }
+
+    /**
+     * Deserializes a partial JSON entity with the REST {@link ObjectMapper} and maps every given JSON property to
+     * its entity attribute, so bulk patches accept the same field names and value formats as the entity itself.
+     */
+    private Map<String, Object> toAttributeValues(Map<String, Object> input) {
+        Class<M> entityClass = getService().getEntityClass();
+        M entity = objectMapper.convertValue(input, entityClass);
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(entity);
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (BeanPropertyDefinition property : objectMapper.getDeserializationConfig().introspect(objectMapper.constructType(entityClass)).findProperties()) {
+            if (input.containsKey(property.getName())) {
+                values.put(property.getInternalName(), wrapper.getPropertyValue(property.getInternalName()));
+            }
+        }
+        if (values.size() != input.size()) {
+            throw new ServiceException(String.format("Unknown fields in %s", input.keySet()));
+        }
+        return values;
+    }
+
+    private R buildResponse(String endpoint, List<M> entryList) {
+        if (Objects.isNull(serviceMetrics))
+            return createResponse(entryList);
+        return serviceMetrics.recordResponse(service.getEntityClass(), endpoint, () -> createResponse(entryList));
+    }
+
+    private R createSearchResponse(Slice<M> searchResults, CountStrategy countStrategy) {
+        R response = buildResponse("search", searchResults.getContent());
+        Integer totalCount = searchResults instanceof Page ? Long.valueOf(((Page<M>) searchResults).getTotalElements()).intValue() : null;
+        StatusResponse status = new StatusResponse(SuccessCodes.DATA_RETRIEVED_SUCCESSFULLY, totalCount);
+        status.setCountStrategy(countStrategy.name);
+        status.setHasNext(searchResults.hasNext());
+        response.setStatus(status);
+        return response;
+    }
+
+    private R createCursorResponse(CursorSlice<M> searchResults) {
+        R response = buildResponse("search", searchResults.getContent());
+        StatusResponse status = new StatusResponse(SuccessCodes.DATA_RETRIEVED_SUCCESSFULLY, searchResults.getNumberOfElements());
+        status.setNextCursor(searchResults.getNextCursor());
+        response.setStatus(status);
         return response;
     }
 }
@@ -0,0 +1,183 @@
+package org.trips.service_framework.controllers;
+
+import com.google.protobuf.Message;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Slice;
+import org.trips.service_framework.models.CursorSlice;
+import org.trips.service_framework.models.entities.BaseEntity;
+import org.trips.service_framework.services.BaseService;
+import org.trips.service_framework.utils.ProtoMapperUtil;
+import org.trips.service_framework.utils.SearchHelper;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * gRPC counterpart of {@link BaseController}. Generated {@code *ImplBase} classes have to be extended by the gRPC
+ * service itself, so subclasses of this class are beans the generated service delegates its RPCs to, e.g.
+ * <pre>
+ * public void streamSearch(SearchRequest request, StreamObserver&lt;TripProto&gt; observer) {
+ *     tripGrpcService.streamSearch(request.getFilters(), request.getSortBy(), request.getIncludes(), observer);
+ * }
+ * </pre>
+ * Exceptions are thrown to the caller and mapped to a {@link Status} by {@code GrpcExceptionInterceptor}.
+ * <p>
+ * {@link #toProto} runs inside the service transaction for {@link #streamSearch} only; every other RPC converts
+ * after the service call returned, so there it may only touch loaded or {@code includes} associations.
+ */
+@Slf4j
+@Getter
+@RequiredArgsConstructor
+public abstract class BaseGrpcService<Entity extends BaseEntity, Proto extends Message> {
+    private static final int STREAM_PAGE_SIZE = 500;
+
+    protected final BaseService<Entity> service;
+    protected final ProtoMapperUtil protoMapperUtil = new ProtoMapperUtil();
+
+    protected abstract Proto toProto(Entity entity);
+
+    protected abstract Entity fromProto(Proto proto);
+
+    /**
+     * Rows fetched per keyset page by {@link #streamSearch}.
+     */
+    protected int getStreamPageSize() {
+        return STREAM_PAGE_SIZE;
+    }
+
+    public void find(Long id, StreamObserver<Proto> responseObserver) {
+        Entity entity = service.find(id);
+        if (Objects.isNull(entity)) {
+            throw new EntityNotFoundException(String.format("%s %d not found", service.getEntityClass().getSimpleName(), id));
+        }
+        complete(toProto(entity), responseObserver);
+    }
+
+    /**
+     * Streams the entities found for {@code ids} in request order, see {@link BaseService#findAll(Collection)}.
+     */
+    public void findAll(Collection<Long> ids, StreamObserver<Proto> responseObserver) {
+        service.findAll(ids).forEach(entity -> responseObserver.onNext(toProto(entity)));
+        responseObserver.onCompleted();
+    }
+
+    public void save(Proto input, StreamObserver<Proto> responseObserver) {
+        complete(toProto(service.save(fromProto(input))), responseObserver);
+    }
+
+    public void update(Proto input, Long id, StreamObserver<Proto> responseObserver) {
+        complete(toProto(service.update(fromProto(input), id)), responseObserver);
+    }
+
+    public void delete(Long id, StreamObserver<Proto> responseObserver) {
+        complete(toProto(service.delete(id)), responseObserver);
+    }
+
+    public void bulkUpdate(List<Proto> inputs, StreamObserver<Proto> responseObserver) {
+        List<Entity> entities = inputs.stream().map(this::fromProto).collect(Collectors.toList());
+        service.bulkCreateOrUpdate(entities).forEach(entity -> responseObserver.onNext(toProto(entity)));
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Unary search; {@code toResponse} wraps the converted page into the RPC's response message.
+     */
+    public <R> void search(String filters, Integer page, Integer fetchSize, String sortBy, String includes, String count,
+                           Function<Slice<Proto>, R> toResponse, StreamObserver<R> responseObserver) {
+        Slice<Entity> slice = service.search(filters, page, fetchSize, sortBy, includes, SearchHelper.getCountStrategy(count));
+        complete(toResponse.apply(slice.map(this::toProto)), responseObserver);
+    }
+
+    /**
+     * Server streaming search over every row matching {@code filters}. Rows are read in keyset pages of
+     * {@link #getStreamPageSize()}, each in its own short transaction, and only sent while the call
+     * {@link ServerCallStreamObserver#isReady() is ready}; a slow client pauses reading instead of buffering
+     * results on the server. Sending resumes from the call's {@code onReady} handler.
+     */
+    public void streamSearch(String filters, String sortBy, String includes, StreamObserver<Proto> responseObserver) {
+        ServerCallStreamObserver<Proto> observer = (ServerCallStreamObserver<Proto>) responseObserver;
+        SearchStream stream = new SearchStream(filters, sortBy, includes, observer);
+        observer.setOnCancelHandler(stream::cancel);
+        observer.setOnReadyHandler(stream::drain);
+        stream.drain();
+    }
+
+    private static <T> void complete(T response, StreamObserver<T> responseObserver) {
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    private class SearchStream {
+        private final String filters;
+        private final String sortBy;
+        private final String includes;
+        private final ServerCallStreamObserver<Proto> observer;
+        private final Queue<Proto> buffer = new ArrayDeque<>();
+        private final AtomicInteger pendingDrains = new AtomicInteger();
+        private String cursor = "";
+        private volatile boolean done;
+
+        SearchStream(String filters, String sortBy, String includes, ServerCallStreamObserver<Proto> observer) {
+            this.filters = filters;
+            this.sortBy = sortBy;
+            this.includes = includes;
+            this.observer = observer;
+        }
+
+        /**
+         * Sends as much as the transport accepts. Concurrent calls from the handler and {@code onReady} are folded
+         * into the running one, so rows are always sent by a single thread at a time.
+         */
+        void drain() {
+            if (pendingDrains.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                try {
+                    while (!done && observer.isReady()) {
+                        if (buffer.isEmpty() && !fetch()) {
+                            done = true;
+                            observer.onCompleted();
+                            break;
+                        }
+                        observer.onNext(buffer.poll());
+                    }
+                } catch (RuntimeException e) {
+                    done = true;
+                    throw e;
+                }
+            } while (pendingDrains.decrementAndGet() != 0);
+        }
+
+        void cancel() {
+            log.info("Search stream cancelled for filters {}", filters);
+            done = true;
+        }
+
+        /**
+         * Loads the next keyset page into the buffer, converted within the page's transaction. Returns false once every
+         * row has been read.
+         */
+        private boolean fetch() {
+            if (Objects.isNull(cursor)) {
+                return false;
+            }
+            CursorSlice<Proto> slice = service.searchByCursor(filters, cursor, getStreamPageSize(), sortBy, includes, BaseGrpcService.this::toProto);
+            buffer.addAll(slice.getContent());
+            cursor = slice.getNextCursor();
+            return !buffer.isEmpty();
+        }
+    }
+}
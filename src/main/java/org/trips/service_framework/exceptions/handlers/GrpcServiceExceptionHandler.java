@@ -2,51 +2,117 @@ package org.trips.service_framework.exceptions.handlers;
 
 import org.trips.service_framework.exceptions.annotations.GrpcExceptionHandler;
 import io.grpc.Status;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.context.support.AbstractApplicationContext;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Abhinav Tripathi 19/05/20
+ * <p>
+ * Handler methods of every {@link BaseGrpcExceptionHandler} bean are collected once, after all singletons are
+ * created, into a table keyed by the declared exception type. An exception is handled by the entry of its closest
+ * superclass, and that resolution is cached per concrete exception class. When several beans handle the same type,
+ * subclasses of {@link BaseGrpcExceptionHandler} win over the base handler.
  */
+@Slf4j
 @Component
-public class GrpcServiceExceptionHandler {
+public class GrpcServiceExceptionHandler implements SmartInitializingSingleton {
+    private static final MethodType HANDLER_TYPE = MethodType.methodType(Status.class, Throwable.class);
+    private static final Handler UNKNOWN_ERROR = e -> Status.UNKNOWN.withDescription("Unknown Error!! Please Contact Admin");
+
     private final AbstractApplicationContext applicationContext;
+    private final Map<Class<?>, Handler> resolvedHandlers = new ConcurrentHashMap<>();
+    private volatile Map<Class<?>, Handler> handlers;
 
     public GrpcServiceExceptionHandler(AbstractApplicationContext applicationContext) {
         this.applicationContext = applicationContext;
     }
 
+    @Override
+    public void afterSingletonsInstantiated() {
+        getHandlers();
+    }
+
     public Status handleException(Exception e) {
-        String[] beanNamesForType = applicationContext.getBeanNamesForType(BaseGrpcExceptionHandler.class);
-        List<Object> collect = Stream.of(beanNamesForType).map(x -> applicationContext.getBeanFactory().getBean(x)).collect(Collectors.toList());
-        for (Object bean : collect) {
-            Method[] declaredMethods = bean.getClass().getDeclaredMethods();
-            for (Method method : declaredMethods) {
+        return resolvedHandlers.computeIfAbsent(e.getClass(), this::resolve).handle(e);
+    }
+
+    private Handler resolve(Class<?> exceptionClass) {
+        Map<Class<?>, Handler> handlers = getHandlers();
+        for (Class<?> clazz = exceptionClass; Objects.nonNull(clazz); clazz = clazz.getSuperclass()) {
+            Handler handler = handlers.get(clazz);
+            if (Objects.nonNull(handler)) {
+                return handler;
+            }
+        }
+        return UNKNOWN_ERROR;
+    }
+
+    private Map<Class<?>, Handler> getHandlers() {
+        if (Objects.isNull(handlers)) {
+            synchronized (this) {
+                if (Objects.isNull(handlers)) {
+                    handlers = discoverHandlers();
+                }
+            }
+        }
+        return handlers;
+    }
+
+    private Map<Class<?>, Handler> discoverHandlers() {
+        Map<Class<?>, Handler> baseHandlers = new HashMap<>();
+        Map<Class<?>, Handler> customHandlers = new HashMap<>();
+        for (Object bean : applicationContext.getBeansOfType(BaseGrpcExceptionHandler.class).values()) {
+            Class<?> beanClass = ClassUtils.getUserClass(bean);
+            Map<Class<?>, Handler> target = beanClass == BaseGrpcExceptionHandler.class ? baseHandlers : customHandlers;
+            for (Method method : beanClass.getDeclaredMethods()) {
                 GrpcExceptionHandler declaredAnnotation = method.getAnnotation(GrpcExceptionHandler.class);
                 if (Objects.isNull(declaredAnnotation))
                     continue;
-                Class<? extends Throwable>[] values = declaredAnnotation.value();
-                for (Class clazz : values) {
-                    if (clazz.isAssignableFrom(e.getClass())) {
-                        if (method.getReturnType().isAssignableFrom(Status.class)) {
-                            try {
-                                return (Status) method.invoke(bean, e);
-                            } catch (Exception e1) {
-                                return Status.INTERNAL.withDescription("Error Occurred while executing method " + method.getName());
-                            }
-                        } else {
-                            return Status.UNIMPLEMENTED.withDescription("Exception Handler Return type should be of io.grpc.Status for method " + clazz.getName());
-                        }
-                    }
+                for (Class<? extends Throwable> clazz : declaredAnnotation.value()) {
+                    target.putIfAbsent(clazz, createHandler(bean, method, clazz));
                 }
             }
         }
-        return Status.UNKNOWN.withDescription("Unknown Error!! Please Contact Admin");
+        baseHandlers.putAll(customHandlers);
+        log.info("Registered gRPC exception handlers for {}", baseHandlers.keySet());
+        return baseHandlers;
+    }
+
+    private static Handler createHandler(Object bean, Method method, Class<?> exceptionClass) {
+        if (!method.getReturnType().isAssignableFrom(Status.class)) {
+            return e -> Status.UNIMPLEMENTED.withDescription("Exception Handler Return type should be of io.grpc.Status for method " + exceptionClass.getName());
+        }
+        MethodHandle methodHandle;
+        try {
+            method.setAccessible(true);
+            methodHandle = MethodHandles.lookup().unreflect(method).bindTo(bean).asType(HANDLER_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            log.error("Invalid gRPC exception handler {}", method, e);
+            return ex -> Status.INTERNAL.withDescription("Error Occurred while executing method " + method.getName());
+        }
+        return e -> {
+            try {
+                return (Status) methodHandle.invokeExact((Throwable) e);
+            } catch (Throwable t) {
+                return Status.INTERNAL.withDescription("Error Occurred while executing method " + method.getName());
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Status handle(Exception e);
     }
 }
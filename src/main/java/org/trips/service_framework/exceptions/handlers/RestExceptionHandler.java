@@ -18,6 +18,7 @@ import javax.persistence.EntityNotFoundException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Created By Abhinav Tripathi on 2019-09-23
@@ -78,6 +79,22 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
     }
 
+    @ExceptionHandler(value = {RejectedExecutionException.class})
+    protected ResponseEntity<Object> handleRejectedExecutionException(RejectedExecutionException ex, WebRequest request) {
+        log.warn("Request rejected, executor saturated : {}", ex.getMessage());
+        StatusResponse status = StatusResponse.builder()
+                .statusCode(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .statusMessage("Service Busy " + ex.getMessage())
+                .statusType(StatusResponse.Type.ERROR)
+                .build();
+
+        BaseResponse response = BaseResponse.builder()
+                .status(status)
+                .build();
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
+
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex, HttpHeaders headers, HttpStatus status, WebRequest request) {
         log.error("Error : ", ex);
@@ -0,0 +1,24 @@
+package org.trips.service_framework.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Tokenizing of a filter string by {@code FilterTokenizer}.
+ */
+@Name("org.trips.service_framework.FilterParse")
+@Label("Filter Parse")
+@Description("Tokenizing of a filter string into clauses")
+@Category({"Service Framework", "Search"})
+@StackTrace(false)
+public class FilterParseEvent extends Event {
+    @Label("Filter Length")
+    public int filterLength;
+
+    @Label("Clauses")
+    public int clauses;
+}
@@ -0,0 +1,24 @@
+package org.trips.service_framework.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Criteria predicates built from one AND group of clauses.
+ */
+@Name("org.trips.service_framework.PredicateBuild")
+@Label("Predicate Build")
+@Description("Criteria predicates built from one AND group of filter clauses")
+@Category({"Service Framework", "Search"})
+@StackTrace(false)
+public class PredicateBuildEvent extends Event {
+    @Label("Entity")
+    public String entity;
+
+    @Label("Predicates")
+    public int predicates;
+}
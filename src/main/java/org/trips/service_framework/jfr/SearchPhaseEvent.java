@@ -0,0 +1,36 @@
+package org.trips.service_framework.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One phase of a {@code BaseService} search: {@code query}, {@code count}, {@code cached} or {@code includes}.
+ */
+@Name("org.trips.service_framework.SearchPhase")
+@Label("Search Phase")
+@Description("Database query, count, cached page load or includes loading of a search")
+@Category({"Service Framework", "Search"})
+@StackTrace(false)
+public class SearchPhaseEvent extends Event {
+    @Label("Entity")
+    public String entity;
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Operators")
+    public String operators;
+
+    @Label("Joins")
+    public int joins;
+
+    @Label("Includes")
+    public String includes;
+
+    @Label("Rows")
+    public long rows;
+}
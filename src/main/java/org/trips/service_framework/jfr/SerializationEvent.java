@@ -0,0 +1,21 @@
+package org.trips.service_framework.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Writing of a JSON response body.
+ */
+@Name("org.trips.service_framework.Serialization")
+@Label("Response Serialization")
+@Description("Writing of a JSON response body by the MVC message converter")
+@Category({"Service Framework", "Search"})
+@StackTrace(false)
+public class SerializationEvent extends Event {
+    @Label("Type")
+    public String type;
+}
@@ -0,0 +1,30 @@
+package org.trips.service_framework.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * {@code CustomSearchSpecification.toPredicate}, plan lookup included.
+ */
+@Name("org.trips.service_framework.Specification")
+@Label("Search Specification")
+@Description("Conversion of a filter string into the where clause of a criteria query")
+@Category({"Service Framework", "Search"})
+@StackTrace(false)
+public class SpecificationEvent extends Event {
+    @Label("Entity")
+    public String entity;
+
+    @Label("Operators")
+    public String operators;
+
+    @Label("Joins")
+    public int joins;
+
+    @Label("Groups")
+    public int groups;
+}
@@ -0,0 +1,29 @@
+package org.trips.service_framework.models;
+
+/**
+ * Aggregates accepted by {@code /aggregate}, written as {@code function} or {@code function:path},
+ * e.g. {@code count}, {@code countDistinct:driver-id}, {@code sum:fare}.
+ */
+public enum AggregateFunction {
+    COUNT("count"),
+    COUNT_DISTINCT("countDistinct"),
+    SUM("sum"),
+    MIN("min"),
+    MAX("max"),
+    AVG("avg");
+
+    public String name;
+
+    AggregateFunction(String name) {
+        this.name = name;
+    }
+
+    public static AggregateFunction value(String function) {
+        for (AggregateFunction aggregateFunction : AggregateFunction.values()) {
+            if (aggregateFunction.name.equalsIgnoreCase(function)) {
+                return aggregateFunction;
+            }
+        }
+        return null;
+    }
+}
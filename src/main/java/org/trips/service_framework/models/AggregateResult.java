@@ -0,0 +1,23 @@
+package org.trips.service_framework.models;
+
+import lombok.Value;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One map per group keyed by the requested group-by and aggregate expressions, and the most frequent values of
+ * every requested facet.
+ */
+@Value
+public class AggregateResult {
+    List<Map<String, Object>> groups;
+    Map<String, List<FacetValue>> facets;
+
+    @Value
+    public static class FacetValue implements Serializable {
+        Object value;
+        Long count;
+    }
+}
@@ -0,0 +1,33 @@
+package org.trips.service_framework.models;
+
+/**
+ * How the total of a search is computed.
+ * <ul>
+ *     <li>{@code exact} - Spring Data count query with the same joins as the page query</li>
+ *     <li>{@code optimized} - unordered {@code count(id)}, {@code count(distinct id)} only when a to-many join is present,
+ *     skipped entirely when the page itself reveals the total</li>
+ *     <li>{@code estimated} - optimized count cached per entity and filter for a short period</li>
+ *     <li>{@code none} - no count, only whether a next page exists</li>
+ * </ul>
+ */
+public enum CountStrategy {
+    EXACT("exact"),
+    OPTIMIZED("optimized"),
+    ESTIMATED("estimated"),
+    NONE("none");
+
+    public String name;
+
+    CountStrategy(String name) {
+        this.name = name;
+    }
+
+    public static CountStrategy value(String strategy) {
+        for (CountStrategy countStrategy : CountStrategy.values()) {
+            if (countStrategy.name.equalsIgnoreCase(strategy)) {
+                return countStrategy;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,20 @@
+package org.trips.service_framework.models;
+
+import lombok.Getter;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+
+/**
+ * Slice returned by keyset searches, carrying the opaque token for the next page.
+ */
+@Getter
+public class CursorSlice<T> extends SliceImpl<T> {
+    private final String nextCursor;
+
+    public CursorSlice(List<T> content, Pageable pageable, String nextCursor) {
+        super(content, pageable, nextCursor != null);
+        this.nextCursor = nextCursor;
+    }
+}
@@ -1,9 +1,10 @@
 package org.trips.service_framework.models;
 
+import org.trips.service_framework.jfr.SpecificationEvent;
+import org.trips.service_framework.utils.FilterPlanCache;
 import org.trips.service_framework.utils.SearchHelper;
 import lombok.AllArgsConstructor;
 import lombok.Setter;
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.jpa.domain.Specification;
 
 import javax.persistence.criteria.CriteriaBuilder;
@@ -12,7 +13,6 @@ import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -25,17 +25,32 @@ public class CustomSearchSpecification<T> implements Specification<T> {
 
     @Override
     public Predicate toPredicate(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
-        filters = Objects.isNull(filters) ? StringUtils.EMPTY : filters;
-        String[] orFilterItems = filters.split("__");
-        List<Predicate> finalPredicates = new ArrayList<>();
-        for (String filter : orFilterItems) {
-            Map<SearchOperator, Map<String, String>> searchParams = SearchHelper.parseSearchParams(filter);
-            Predicate[] predicates = SearchHelper.getPredicatesFromSearchParams(searchParams, root, criteriaBuilder);
-            Predicate orPredicate = criteriaBuilder.and(predicates);
-            finalPredicates.add(orPredicate);
+        SpecificationEvent event = new SpecificationEvent();
+        event.begin();
+        FilterPlan plan = null;
+        try {
+            plan = FilterPlanCache.getInstance().get(root.getJavaType(), filters);
+            List<Predicate> finalPredicates = new ArrayList<>();
+            for (List<FilterClause> clauses : plan.getGroups()) {
+                Predicate[] predicates = SearchHelper.getPredicatesFromClauses(clauses, root, criteriaBuilder);
+                Predicate orPredicate = criteriaBuilder.and(predicates);
+                finalPredicates.add(orPredicate);
+            }
+            if (SearchHelper.hasCollectionJoin(root)) {
+                query.distinct(true);
+            }
+            return criteriaBuilder.or(finalPredicates.toArray(new Predicate[0]));
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.entity = root.getJavaType().getSimpleName();
+                if (Objects.nonNull(plan)) {
+                    event.operators = plan.getOperators();
+                    event.joins = plan.getJoinCount();
+                    event.groups = plan.getGroups().size();
+                }
+                event.commit();
+            }
         }
-        Predicate[] predicates = finalPredicates.toArray(new Predicate[0]);
-        query.where(criteriaBuilder.or(predicates));
-        return null;
     }
 }
@@ -0,0 +1,45 @@
+package org.trips.service_framework.models;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Date bucketing for {@code /aggregate} group-by paths, written as {@code path:bucket}, e.g. {@code createdAt:day}.
+ * Buckets are grouped on the database date part functions and labelled like {@code 2020-10-27} or {@code 2020-10-27 13:00}.
+ */
+public enum DateBucket {
+    YEAR("year", "%04d"),
+    MONTH("month", "%04d-%02d"),
+    DAY("day", "%04d-%02d-%02d"),
+    HOUR("hour", "%04d-%02d-%02d %02d:00");
+
+    private static final List<String> PARTS = Arrays.asList("year", "month", "day", "hour");
+
+    public String name;
+    private final String format;
+
+    DateBucket(String name, String format) {
+        this.name = name;
+        this.format = format;
+    }
+
+    /**
+     * Database functions extracting the date parts of this bucket, most significant first.
+     */
+    public List<String> getParts() {
+        return PARTS.subList(0, ordinal() + 1);
+    }
+
+    public String format(Object[] parts) {
+        return String.format(format, parts);
+    }
+
+    public static DateBucket value(String bucket) {
+        for (DateBucket dateBucket : DateBucket.values()) {
+            if (dateBucket.name.equalsIgnoreCase(bucket)) {
+                return dateBucket;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,13 @@
+package org.trips.service_framework.models;
+
+import lombok.Value;
+
+/**
+ * Single {@code key.operator:value} condition of a compiled {@link FilterPlan}.
+ */
+@Value
+public class FilterClause {
+    SearchOperator operator;
+    String key;
+    String value;
+}
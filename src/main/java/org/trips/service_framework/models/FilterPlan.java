@@ -0,0 +1,69 @@
+package org.trips.service_framework.models;
+
+import org.trips.service_framework.utils.FilterTokenizer;
+import org.trips.service_framework.utils.SearchHelper;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable, parsed form of a filter string. Groups separated by {@code __} are OR-ed,
+ * clauses within a group are AND-ed. See {@link FilterTokenizer} for the syntax.
+ */
+@Value
+public class FilterPlan {
+    List<List<FilterClause>> groups;
+
+    public boolean hasJoins() {
+        return groups.stream().flatMap(List::stream).anyMatch(clause -> SearchHelper.isJoinPath(clause.getKey()));
+    }
+
+    /**
+     * Comma separated, sorted names of the operators used, {@code none} without clauses.
+     */
+    public String getOperators() {
+        String operators = groups.stream().flatMap(List::stream)
+                .map(clause -> clause.getOperator().name)
+                .distinct()
+                .sorted()
+                .collect(Collectors.joining(","));
+        return operators.isEmpty() ? "none" : operators;
+    }
+
+    /**
+     * Number of distinct associations joined by the clause keys, {@code driver-vehicle-id} counts as two.
+     */
+    public int getJoinCount() {
+        Set<String> joins = new HashSet<>();
+        groups.stream().flatMap(List::stream).map(FilterClause::getKey).filter(SearchHelper::isJoinPath).forEach(key -> {
+            for (int index = key.indexOf(SearchHelper.KEY_DELIMITER); index > -1; index = key.indexOf(SearchHelper.KEY_DELIMITER, index + 1)) {
+                joins.add(key.substring(0, index).replace(SearchHelper.LEFT_JOIN_SUFFIX, ""));
+            }
+        });
+        return joins.size();
+    }
+
+    public static FilterPlan compile(String filters) {
+        return new FilterPlan(FilterTokenizer.tokenize(filters));
+    }
+
+    public static List<FilterClause> toClauses(Map<SearchOperator, Map<String, String>> searchParams) {
+        List<FilterClause> clauses = new ArrayList<>();
+        if (Objects.isNull(searchParams)) {
+            return clauses;
+        }
+        for (Map.Entry<SearchOperator, Map<String, String>> entry : searchParams.entrySet()) {
+            for (Map.Entry<String, String> e : entry.getValue().entrySet()) {
+                clauses.add(new FilterClause(entry.getKey(), e.getKey(), e.getValue()));
+            }
+        }
+        return Collections.unmodifiableList(clauses);
+    }
+}
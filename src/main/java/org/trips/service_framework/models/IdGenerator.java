@@ -1,22 +1,70 @@
 package org.trips.service_framework.models;
 
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
 import org.trips.service_framework.models.entities.BaseEntity;
 import org.hibernate.engine.spi.SharedSessionContractImplementor;
 import org.hibernate.id.IdentityGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
 
 import java.io.Serializable;
 import java.util.Objects;
+import java.util.Properties;
 
 /**
  * Created By Abhinav Tripathi on 20/12/19
+ * <p>
+ * Uses database identity columns by default, which makes Hibernate insert every entity immediately and rules out
+ * JDBC batching. Setting {@code service_framework.id.strategy=snowflake} (e.g. through
+ * {@code spring.jpa.properties.service_framework.id.strategy}) assigns {@link SnowflakeIdGenerator} ids before
+ * the insert instead, so inserts can be batched with {@code hibernate.jdbc.batch_size} and
+ * {@code hibernate.order_inserts}. Every node needs a distinct {@code service_framework.id.node_id} (0..1023),
+ * startup fails when it is missing or out of range.
  */
 public class IdGenerator extends IdentityGenerator {
+    public static final String STRATEGY = "service_framework.id.strategy";
+    public static final String NODE_ID = "service_framework.id.node_id";
+    private static final String SNOWFLAKE = "snowflake";
+
+    private SnowflakeIdGenerator snowflakeIdGenerator;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) {
+        super.configure(type, params, serviceRegistry);
+        ConfigurationService configurationService = serviceRegistry.getService(ConfigurationService.class);
+        String strategy = configurationService.getSetting(STRATEGY, StandardConverters.STRING, "identity");
+        if (SNOWFLAKE.equalsIgnoreCase(strategy)) {
+            String nodeId = configurationService.getSetting(NODE_ID, StandardConverters.STRING, null);
+            snowflakeIdGenerator = SnowflakeIdGenerator.getInstance(getNodeId(nodeId));
+        }
+    }
+
     @Override
     public Serializable generate(SharedSessionContractImplementor session, Object object) {
         BaseEntity entity = (BaseEntity) object;
         if (Objects.nonNull(entity.getId()) && entity.getId() > 0) {
             return entity.getId();
         }
+        if (Objects.nonNull(snowflakeIdGenerator)) {
+            return snowflakeIdGenerator.nextId();
+        }
         return super.generate(session, object);
     }
+
+    private static int getNodeId(String nodeId) {
+        if (Objects.isNull(nodeId) || nodeId.trim().isEmpty()) {
+            throw new MappingException(String.format("%s is required with the %s id strategy", NODE_ID, SNOWFLAKE));
+        }
+        try {
+            int value = Integer.parseInt(nodeId.trim());
+            if (value >= 0 && value <= SnowflakeIdGenerator.MAX_NODE_ID) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new MappingException(String.format("%s must be within 0..%d, got %s", NODE_ID, SnowflakeIdGenerator.MAX_NODE_ID, nodeId));
+    }
 }
@@ -1,5 +1,10 @@
 package org.trips.service_framework.models;
 
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
 /**
  * Created By Abhinav Tripathi
  */
@@ -18,7 +23,16 @@ public enum SearchOperator {
     NOT_IN("nin"),
     JSONB_PATH_EXISTS("jsonb_path_exists"),
     JSONB_PATH_EQUALS("jsonb_path_equals"),
-    JSONB_PATH_CONTAINS("jsonb_path_contains");
+    JSONB_PATH_CONTAINS("jsonb_path_contains"),
+    MATCH("match");
+
+    private static final Map<String, SearchOperator> BY_NAME = new HashMap<>();
+
+    static {
+        for (SearchOperator searchOperator : values()) {
+            BY_NAME.put(searchOperator.name.toLowerCase(Locale.ROOT), searchOperator);
+        }
+    }
 
     public String name;
 
@@ -27,11 +41,6 @@ public enum SearchOperator {
     }
 
     public static SearchOperator value(String operator) {
-        for (SearchOperator searchOperator : SearchOperator.values()) {
-            if (searchOperator.name.equalsIgnoreCase(operator)) {
-                return searchOperator;
-            }
-        }
-        return null;
+        return Objects.isNull(operator) ? null : BY_NAME.get(operator.toLowerCase(Locale.ROOT));
     }
 }
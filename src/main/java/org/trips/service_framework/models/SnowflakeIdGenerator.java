@@ -0,0 +1,47 @@
+package org.trips.service_framework.models;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free, time ordered 64 bit ids: 41 bits of milliseconds since 2020-01-01 UTC, 10 bits of node id and
+ * 12 bits of sequence. When a millisecond runs out of sequence numbers, or the clock moves backwards, ids keep
+ * increasing by borrowing from the following milliseconds instead of blocking.
+ */
+public class SnowflakeIdGenerator {
+    public static final int MAX_NODE_ID = 1023;
+    private static final long EPOCH = 1577836800000L;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final Map<Integer, SnowflakeIdGenerator> INSTANCES = new ConcurrentHashMap<>();
+
+    private final long nodeId;
+    /**
+     * Last issued timestamp shifted left by {@link #SEQUENCE_BITS}, plus its sequence.
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    private SnowflakeIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException(String.format("Node id %d is outside 0..%d", nodeId, MAX_NODE_ID));
+        }
+        this.nodeId = nodeId;
+    }
+
+    public static SnowflakeIdGenerator getInstance(int nodeId) {
+        return INSTANCES.computeIfAbsent(nodeId, SnowflakeIdGenerator::new);
+    }
+
+    public long nextId() {
+        long current;
+        long next;
+        do {
+            current = state.get();
+            long now = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+            next = now > current ? now : current + 1;
+        } while (!state.compareAndSet(current, next));
+        return ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+    }
+}
@@ -0,0 +1,16 @@
+package org.trips.service_framework.models.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares that a column, or every column of an entity, uses a case insensitive collation such as MySQL's
+ * {@code utf8mb4_0900_ai_ci}. The {@code like} operator then compares the column as is instead of wrapping it in
+ * {@code lower()}, so an index on the column stays usable. Goes on the field or, with property access, the getter.
+ */
+@Target({ElementType.FIELD, ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CaseInsensitive {
+}
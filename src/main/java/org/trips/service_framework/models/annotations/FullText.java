@@ -0,0 +1,16 @@
+package org.trips.service_framework.models.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares a column covered by a MySQL {@code FULLTEXT} index of its own, allowing the {@code match} operator on it.
+ * {@code title.match:+pune -delhi} becomes {@code MATCH (title) AGAINST (? IN BOOLEAN MODE)}. Goes on the field or,
+ * with property access, the getter.
+ */
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface FullText {
+}
@@ -0,0 +1,47 @@
+package org.trips.service_framework.models.entries;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * Request of {@code POST /aggregate}. Paths use the filter syntax and join like filters do, e.g. {@code driver-city}
+ * is an inner join, {@code driver~-city} a left join that keeps rows without a driver.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AggregateEntry {
+    @NotNull
+    private String filters;
+
+    /**
+     * Paths to group by, date paths may be bucketed with {@code path:hour|day|month|year}.
+     */
+    private List<String> groupBy;
+
+    /**
+     * {@code count} (default), {@code countDistinct:path}, {@code sum:path}, {@code min:path}, {@code max:path} or {@code avg:path},
+     * {@code sum} and {@code avg} only on numeric paths.
+     */
+    private List<String> aggregates;
+
+    /**
+     * Paths whose most frequent values are returned with their counts.
+     */
+    private List<String> facets;
+
+    @Min(1)
+    @Builder.Default
+    private int facetSize = 10;
+
+    @Min(1)
+    @Builder.Default
+    private int fetchSize = 1000;
+}
@@ -27,4 +27,21 @@ public class SearchEntry {
     private String sortBy;
 
     private String includes;
+
+    /**
+     * Enables keyset pagination when non null; empty for the first page, otherwise the
+     * {@code nextCursor} of the previous response. {@code page} is ignored in this mode.
+     */
+    private String cursor;
+
+    /**
+     * One of {@code exact} (default), {@code optimized}, {@code estimated} or {@code none}.
+     */
+    private String count;
+
+    /**
+     * Comma separated attributes to select instead of whole entities, e.g. {@code id,status,driver-name}.
+     * Attributes that are not selected are returned as null and {@code includes} is ignored.
+     */
+    private String fields;
 }
@@ -0,0 +1,24 @@
+package org.trips.service_framework.models.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+import org.trips.service_framework.models.AggregateResult;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response of {@code POST /aggregate}.
+ */
+@Data
+@SuperBuilder
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class AggregateResponse extends BaseResponse {
+    private List<Map<String, Object>> groups;
+    private Map<String, List<AggregateResult.FacetValue>> facets;
+}
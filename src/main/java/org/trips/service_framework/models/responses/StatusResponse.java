@@ -9,6 +9,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.io.Serializable;
+import java.util.List;
 
 /**
  * Created By Abhinav Tripathi
@@ -23,6 +24,15 @@ public class StatusResponse implements Serializable {
     private String statusMessage;
     private Type statusType;
     private Integer totalCount;
+    private String nextCursor;
+    private String countStrategy;
+    private Boolean hasNext;
+    /**
+     * Ids of the rows written by {@code /bulk/upsert}, in request order. Requests whose entries collide with another
+     * row on a unique key other than the id fail instead of returning ids that were never written.
+     */
+    private List<Long> ids;
+    private List<Long> missingIds;
 
     public enum Type {
         ERROR,
@@ -1,24 +1,70 @@
 package org.trips.service_framework.services;
 
 import org.joda.time.DateTime;
+import org.trips.service_framework.caches.EntityCache;
+import org.trips.service_framework.caches.SearchResultCache;
+import org.trips.service_framework.caches.annotations.CachedEntity;
+import org.trips.service_framework.exceptions.ServiceException;
+import org.trips.service_framework.jfr.SearchPhaseEvent;
+import org.trips.service_framework.models.AggregateResult;
+import org.trips.service_framework.models.CountStrategy;
+import org.trips.service_framework.models.CursorSlice;
+import org.trips.service_framework.models.FilterPlan;
 import org.trips.service_framework.models.CustomSearchSpecification;
 import org.trips.service_framework.models.entities.BaseEntity;
+import org.trips.service_framework.models.entries.AggregateEntry;
 import org.trips.service_framework.models.entries.SearchEntry;
 import org.trips.service_framework.models.repositories.BaseRepository;
+import org.trips.service_framework.utils.AggregateHelper;
 import org.trips.service_framework.utils.Context;
+import org.trips.service_framework.utils.CountEstimateCache;
+import org.trips.service_framework.utils.FilterPlanCache;
+import org.trips.service_framework.utils.FrameworkExecutors;
+import org.trips.service_framework.utils.IncludesHelper;
+import org.trips.service_framework.utils.KeysetHelper;
 import org.trips.service_framework.utils.SearchHelper;
+import org.trips.service_framework.utils.ServiceMetrics;
+import org.trips.service_framework.utils.UpsertHelper;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.hibernate.Hibernate;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.StringUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.lang.reflect.Method;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Created By Abhinav Tripathi
@@ -27,90 +73,687 @@ import java.util.stream.Collectors;
 @Getter
 @RequiredArgsConstructor
 public abstract class BaseService<Entity extends BaseEntity> {
+    private static final int STREAM_INCLUDES_BATCH_SIZE = 100;
+    private static final int BULK_UPSERT_CHUNK_SIZE = 500;
+    private static final int BULK_UPDATE_MAX_ROWS = 10000;
+    private static final int BULK_UPDATE_ID_CHUNK_SIZE = 1000;
+    private static final int BATCH_FETCH_CHUNK_SIZE = 128;
+    private static final int BATCH_FETCH_MAX_IDS = 10000;
+    private static final Set<String> NON_UPDATABLE_FIELDS = Set.of("id", "version", "createdAt", "createdBy",
+            "updatedAt", "updatedBy", "deletedAt", "deletedBy");
+
     public final BaseRepository<Entity> repository;
     public final Class<Entity> entityClass;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired(required = false)
+    private SearchResultCache searchResultCache;
+
+    @Autowired(required = false)
+    private EntityCache entityCache;
+
+    @Autowired(required = false)
+    private FrameworkExecutors frameworkExecutors;
+
+    @Autowired(required = false)
+    private ServiceMetrics serviceMetrics;
+
     protected abstract Entity merge(Entity entity, Entity newEntity);
 
     @Transactional(readOnly = true)
     public Entity find(Long id) throws RuntimeException {
-        Optional<Entity> entity = getRepository().findById(id);
-        return entity.orElse(null);
+        return timed("find", null, () -> {
+            if (isEntityCacheEnabled()) {
+                Entity cached = entityCache.get(entityClass, id);
+                if (Objects.nonNull(cached))
+                    return cached;
+            }
+            Optional<Entity> entity = getRepository().findById(id);
+            if (isEntityCacheEnabled())
+                entity.ifPresent(entityCache::put);
+            return entity.orElse(null);
+        });
+    }
+
+    /**
+     * Multi-get returning the found entities in the order of their first occurrence in {@code ids}.
+     * <p>
+     * Ids are de-duplicated and served from the entity cache where possible, the rest is loaded with IN queries of
+     * at most {@link #getBatchFetchChunkSize()} ids. Chunks are padded to a power of two by repeating their last id,
+     * so only a handful of distinct statements reach the database. Outside a transaction the chunks run in parallel
+     * on the batch fetch executor, each in its own read only transaction. Inside one they run sequentially on the
+     * caller's thread, so they see its uncommitted writes and its isolation level, and return managed entities.
+     */
+    public List<Entity> findAll(Collection<Long> ids) throws RuntimeException {
+        List<Entity> result = timed("findAll", null, () -> findAllById(ids));
+        recordResultSize("findAll", result.size());
+        return result;
+    }
+
+    private List<Entity> findAllById(Collection<Long> ids) {
+        List<Long> uniqueIds = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        if (uniqueIds.size() > BATCH_FETCH_MAX_IDS) {
+            throw new ServiceException(String.format("At most %d ids can be fetched at once", BATCH_FETCH_MAX_IDS));
+        }
+        Map<Long, Entity> found = new HashMap<>();
+        List<Long> pending = new ArrayList<>();
+        for (Long id : uniqueIds) {
+            Entity cached = isEntityCacheEnabled() ? entityCache.get(entityClass, id) : null;
+            if (Objects.nonNull(cached)) {
+                found.put(id, cached);
+            } else {
+                pending.add(id);
+            }
+        }
+
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < pending.size(); from += getBatchFetchChunkSize()) {
+            chunks.add(padChunk(pending.subList(from, Math.min(from + getBatchFetchChunkSize(), pending.size()))));
+        }
+        List<Entity> loaded = new ArrayList<>();
+        if (chunks.size() == 1 || Objects.isNull(frameworkExecutors) || TransactionSynchronizationManager.isActualTransactionActive()) {
+            chunks.forEach(chunk -> loaded.addAll(getRepository().findAllById(chunk)));
+        } else {
+            List<CompletableFuture<List<Entity>>> futures = chunks.stream()
+                    .map(chunk -> CompletableFuture.supplyAsync(Context.wrap(() -> getRepository().findAllById(chunk)), frameworkExecutors.getBatchFetchExecutor()))
+                    .collect(Collectors.toList());
+            try {
+                futures.forEach(future -> loaded.addAll(future.join()));
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        for (Entity entity : loaded) {
+            found.put(entity.getId(), entity);
+            if (isEntityCacheEnabled())
+                entityCache.put(entity);
+        }
+        return uniqueIds.stream().map(found::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private static List<Long> padChunk(List<Long> chunk) {
+        int size = Integer.highestOneBit(chunk.size());
+        size = size == chunk.size() ? size : size << 1;
+        List<Long> padded = new ArrayList<>(size);
+        padded.addAll(chunk);
+        while (padded.size() < size) {
+            padded.add(chunk.get(chunk.size() - 1));
+        }
+        return padded;
     }
 
     @Transactional(rollbackFor = RuntimeException.class)
     public Entity save(Entity entity) throws RuntimeException {
-        return getRepository().save(entity);
+        return timed("save", null, () -> {
+            Entity result = getRepository().save(entity);
+            onEntitiesChanged(Collections.singletonList(result));
+            return result;
+        });
     }
 
     @Transactional(rollbackFor = RuntimeException.class)
     public Entity update(Entity entry, Long id) throws RuntimeException {
-        Entity entity = getRepository().getReferenceById(id);
-        return getRepository().save(merge(entry, entity));
+        return timed("update", null, () -> {
+            Entity entity = getRepository().getReferenceById(id);
+            Entity result = getRepository().save(merge(entry, entity));
+            onEntitiesChanged(Collections.singletonList(result));
+            return result;
+        });
     }
 
     @Transactional(rollbackFor = RuntimeException.class)
     public List<Entity> bulkCreateOrUpdate(List<Entity> entries) throws RuntimeException {
-        List<Long> entityIds = entries.stream()
-                .filter(Objects::nonNull)
-                .map(BaseEntity::getId)
-                .collect(Collectors.toList());
-        List<Entity> entities = getRepository().findAllById(entityIds);
-        Map<Long, Entity> entityMap = entities.stream().collect(Collectors.toMap(BaseEntity::getId, entity -> entity));
-        List<Entity> updatedEntities = new ArrayList<>();
-        for (Entity entry : entries) {
-            Entity currentEntity = entityMap.get(entry.getId());
-            if (Objects.nonNull(currentEntity)) {
-                updatedEntities.add(merge(entry, currentEntity));
-            } else {
-                updatedEntities.add(entry);
+        List<Entity> result = timed("bulkCreateOrUpdate", null, () -> {
+            List<Long> entityIds = entries.stream()
+                    .filter(Objects::nonNull)
+                    .map(BaseEntity::getId)
+                    .collect(Collectors.toList());
+            List<Entity> entities = getRepository().findAllById(entityIds);
+            Map<Long, Entity> entityMap = entities.stream().collect(Collectors.toMap(BaseEntity::getId, entity -> entity));
+            List<Entity> updatedEntities = new ArrayList<>();
+            for (Entity entry : entries) {
+                Entity currentEntity = entityMap.get(entry.getId());
+                if (Objects.nonNull(currentEntity)) {
+                    updatedEntities.add(merge(entry, currentEntity));
+                } else {
+                    updatedEntities.add(entry);
+                }
+            }
+            updatedEntities = getRepository().saveAll(updatedEntities);
+            onEntitiesChanged(updatedEntities);
+            return updatedEntities;
+        });
+        recordResultSize("bulkCreateOrUpdate", result.size());
+        return result;
+    }
+
+    /**
+     * Set based alternative to {@link #bulkCreateOrUpdate(List)}: entries are written with multi-row
+     * {@code INSERT ... ON DUPLICATE KEY UPDATE} statements of {@link #getBulkUpsertChunkSize()} rows, without
+     * reading or merging existing rows first. Updatable columns of existing rows, apart from {@code deleted_*}, are
+     * overwritten with the entries' values. Returns the ids of all written rows in input order.
+     * <p>
+     * New entries are only written in bulk with the snowflake id strategy, identity ids are inserted one by one. Entries
+     * that hit an existing row through a unique key other than the id fail the whole upsert, see
+     * {@link UpsertHelper#upsert(EntityManager, Class, List, int)}.
+     */
+    @Transactional(rollbackFor = RuntimeException.class)
+    public List<Long> bulkUpsert(List<Entity> entries) throws RuntimeException {
+        return bulkUpsert(entries, getBulkUpsertChunkSize());
+    }
+
+    @Transactional(rollbackFor = RuntimeException.class)
+    public List<Long> bulkUpsert(List<Entity> entries, int chunkSize) throws RuntimeException {
+        List<Long> result = timed("bulkUpsert", null, () -> {
+            List<Long> ids = UpsertHelper.upsert(entityManager, entityClass, entries, chunkSize);
+            if (Objects.nonNull(searchResultCache))
+                searchResultCache.invalidate(entityClass);
+            if (isEntityCacheEnabled())
+                entityCache.evict(entityClass, ids);
+            return ids;
+        });
+        recordResultSize("bulkUpsert", result.size());
+        return result;
+    }
+
+    /**
+     * Sets {@code values} (attribute name to value) on every row matching {@code filters} with a criteria
+     * {@code UPDATE}, stamping {@code updated_*} and incrementing {@code version}. Audit columns can not be set,
+     * soft deletes go through {@link #bulkDelete(String, boolean)}. Fails, and rolls back, when more than
+     * {@link #getBulkUpdateMaxRows()} rows match or end up updated. Returns the number of updated rows, with
+     * {@code dryRun} the number of matching rows.
+     */
+    @Transactional(rollbackFor = RuntimeException.class)
+    public long bulkUpdate(String filters, Map<String, Object> values, boolean dryRun) throws RuntimeException {
+        if (Objects.isNull(values) || values.isEmpty()) {
+            throw new ServiceException("No fields to update");
+        }
+        for (String field : values.keySet()) {
+            if (NON_UPDATABLE_FIELDS.contains(field)) {
+                throw new ServiceException(String.format("%s can not be updated", field));
             }
         }
-        updatedEntities = getRepository().saveAll(updatedEntities);
-        return updatedEntities;
+        return timed("bulkUpdate", filters, () -> bulkUpdate(filters, false, dryRun, (update, root) -> {
+            try {
+                values.forEach((field, value) -> update.set(root.get(field), value));
+            } catch (IllegalArgumentException e) {
+                throw new ServiceException(String.format("Invalid update fields %s", values.keySet()), e);
+            }
+        }));
+    }
+
+    /**
+     * Soft deletes every row matching {@code filters} that is not deleted yet with a single criteria {@code UPDATE},
+     * with the same row limit and dry run as {@link #bulkUpdate(String, Map, boolean)}.
+     */
+    @Transactional(rollbackFor = RuntimeException.class)
+    public long bulkDelete(String filters, boolean dryRun) throws RuntimeException {
+        return timed("bulkDelete", filters, () -> bulkUpdate(filters, true, dryRun, (update, root) -> {
+            update.set(root.get("deletedAt"), DateTime.now());
+            update.set(root.get("deletedBy"), getCurrentUser());
+        }));
+    }
+
+    private long bulkUpdate(String filters, boolean skipDeleted, boolean dryRun, BiConsumer<CriteriaUpdate<Entity>, Root<Entity>> setter) {
+        if (StringUtils.isBlank(filters)) {
+            throw new ServiceException("Filters are required for bulk updates");
+        }
+        Specification<Entity> specification = new CustomSearchSpecification<>(filters);
+        if (skipDeleted) {
+            specification = specification.and((root, query, builder) -> builder.isNull(root.get("deletedAt")));
+        }
+        long count = count(specification);
+        if (dryRun || count == 0) {
+            return count;
+        }
+        checkBulkUpdateRows(count);
+
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Entity> update = builder.createCriteriaUpdate(entityClass);
+        Root<Entity> root = update.from(entityClass);
+        setter.accept(update, root);
+        Path<Long> version = root.get("version");
+        update.set(root.get("updatedAt"), DateTime.now());
+        update.set(root.get("updatedBy"), getCurrentUser());
+        update.set(version, builder.sum(version, 1L));
+
+        // Bulk UPDATE statements can not join, and MySQL can not select from the updated table in a subquery, so
+        // joined filters (and entity cache eviction) go through the matching ids instead.
+        boolean byIds = FilterPlanCache.getInstance().get(entityClass, filters).hasJoins() || isEntityCacheEnabled();
+        long updated = 0;
+        if (byIds) {
+            List<Long> ids = getIds(specification);
+            checkBulkUpdateRows(ids.size());
+            for (int from = 0; from < ids.size(); from += BULK_UPDATE_ID_CHUNK_SIZE) {
+                update.where(root.get("id").in(ids.subList(from, Math.min(from + BULK_UPDATE_ID_CHUNK_SIZE, ids.size()))));
+                updated += entityManager.createQuery(update).executeUpdate();
+            }
+            if (isEntityCacheEnabled())
+                entityCache.evict(entityClass, ids);
+        } else {
+            update.where(specification.toPredicate(root, null, builder));
+            updated = entityManager.createQuery(update).executeUpdate();
+            // more rows may match than were counted, throwing rolls the update back
+            checkBulkUpdateRows(updated);
+        }
+        if (Objects.nonNull(searchResultCache))
+            searchResultCache.invalidate(entityClass);
+        return updated;
+    }
+
+    private void checkBulkUpdateRows(long rows) {
+        if (rows > getBulkUpdateMaxRows()) {
+            throw new ServiceException(String.format("%d rows match, bulk updates are limited to %d rows", rows, getBulkUpdateMaxRows()));
+        }
+    }
+
+    private List<Long> getIds(Specification<Entity> specification) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<Entity> root = query.from(entityClass);
+        query.where(specification.toPredicate(root, query, builder));
+        query.select(root.get("id"));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private static String getCurrentUser() {
+        return Objects.nonNull(Context.getUserId()) ? Context.getUserId() : "System";
+    }
+
+    /**
+     * Groups the rows matching the entry's filters in a single GROUP BY query, see {@link AggregateEntry}.
+     */
+    @Transactional(readOnly = true)
+    public AggregateResult aggregate(AggregateEntry aggregateEntry) throws RuntimeException {
+        return timed("aggregate", aggregateEntry.getFilters(), () -> AggregateHelper.aggregate(entityManager, entityClass, aggregateEntry));
     }
 
     @Transactional(readOnly = true)
     public Page<Entity> search(String filters, Integer page, Integer fetchSize, String sortBy, String includes) throws RuntimeException {
-        Pageable pageable = SearchHelper.getPageRequest(page, fetchSize, sortBy);
-        Page<Entity> resultPages = getRepository().findAll(new CustomSearchSpecification<>(filters), pageable);
-        if (Objects.nonNull(includes))
-            getResultWithIncludes(entityClass, includes, resultPages.getContent());
+        recordFetchSize("search", fetchSize);
+        Page<Entity> resultPages = timed("search", filters, () -> {
+            Pageable pageable = SearchHelper.getPageRequest(page, fetchSize, sortBy);
+            Page<Entity> result = timedPhase("query", filters, null, () -> getRepository().findAll(new CustomSearchSpecification<>(filters), pageable));
+            if (Objects.nonNull(includes))
+                getResultWithIncludes(entityClass, includes, result.getContent());
+            return result;
+        });
+        recordResultSize("search", resultPages.getNumberOfElements());
         return resultPages;
     }
 
     @Transactional(readOnly = true)
     public Page<Entity> search(SearchEntry searchEntry) throws RuntimeException {
-        Pageable pageable = SearchHelper.getPageRequest(searchEntry.getPage(), searchEntry.getFetchSize(), searchEntry.getSortBy());
-        Page<Entity> resultPages = getRepository().findAll(new CustomSearchSpecification<>(searchEntry.getFilters()), pageable);
-        if (Objects.nonNull(searchEntry.getIncludes()))
-            getResultWithIncludes(entityClass, searchEntry.getIncludes(), resultPages.getContent());
-        return resultPages;
+        return search(searchEntry.getFilters(), searchEntry.getPage(), searchEntry.getFetchSize(), searchEntry.getSortBy(), searchEntry.getIncludes());
     }
 
-    private void getResultWithIncludes(Class<Entity> clazz, String includes, List<Entity> result) throws RuntimeException {
-        String[] includeArray = includes.split(",");
-        Method[] classMethods = clazz.getDeclaredMethods();
-        for (Entity data : result) {
-            for (String includeKey : includeArray) {
-                String methodName = String.format("get%s", StringUtils.capitalize(includeKey));
-                for (Method classMethod : classMethods) {
-                    if (classMethod.getName().equals(methodName)) {
-                        try {
-                            Hibernate.initialize(classMethod.invoke(data));
-                        } catch (Exception e) {
-                            log.error("Error Occurred while fetching lazy loaded entity");
-                        }
-                    }
+    @Transactional(readOnly = true)
+    public Slice<Entity> search(String filters, Integer page, Integer fetchSize, String sortBy, String includes, CountStrategy countStrategy) throws RuntimeException {
+        recordFetchSize("search", fetchSize);
+        Slice<Entity> resultPages = timed("search", filters, () -> {
+            Pageable pageable = SearchHelper.getPageRequest(page, fetchSize, sortBy);
+            Slice<Entity> result;
+            if (isSearchCacheEnabled()) {
+                String key = searchResultCache.getKey(entityClass, filters, page, fetchSize, sortBy, countStrategy);
+                SearchResultCache.Lookup lookup = searchResultCache.lookup(entityClass, key);
+                if (Objects.nonNull(lookup.getResult())) {
+                    result = timedPhase("cached", filters, null, () -> getCachedSlice(lookup.getResult(), pageable));
+                } else {
+                    result = getSlice(filters, pageable, countStrategy);
+                    Long total = result instanceof Page ? ((Page<Entity>) result).getTotalElements() : null;
+                    List<Long> ids = result.getContent().stream().map(BaseEntity::getId).collect(Collectors.toList());
+                    searchResultCache.put(key, lookup, ids, total, result.hasNext());
                 }
+            } else {
+                result = getSlice(filters, pageable, countStrategy);
             }
+            if (Objects.nonNull(includes))
+                getResultWithIncludes(entityClass, includes, result.getContent());
+            return result;
+        });
+        recordResultSize("search", resultPages.getNumberOfElements());
+        return resultPages;
+    }
+
+    private Slice<Entity> getSlice(String filters, Pageable pageable, CountStrategy countStrategy) {
+        Specification<Entity> specification = new CustomSearchSpecification<>(filters);
+        if (CountStrategy.EXACT.equals(countStrategy)) {
+            return timedPhase("query", filters, null, () -> getRepository().findAll(specification, pageable));
         }
+        return getSlice(createQuery(specification, pageable.getSort()), pageable, countStrategy, filters, specification);
+    }
+
+    private Slice<Entity> getCachedSlice(SearchResultCache.CachedSearch cachedSearch, Pageable pageable) {
+        Map<Long, Entity> entityMap = getRepository().findAllById(cachedSearch.getIds()).stream()
+                .collect(Collectors.toMap(BaseEntity::getId, entity -> entity));
+        List<Entity> result = cachedSearch.getIds().stream()
+                .map(entityMap::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        if (Objects.nonNull(cachedSearch.getTotal()))
+            return new PageImpl<>(result, pageable, cachedSearch.getTotal());
+        return new SliceImpl<>(result, pageable, cachedSearch.isHasNext());
+    }
+
+    /**
+     * Whether {@link #search(String, Integer, Integer, String, String, CountStrategy)} results are cached in Redis.
+     * Requires {@code service-framework.search-cache.enabled=true}; override to opt a service out.
+     */
+    protected boolean isSearchCacheEnabled() {
+        return Objects.nonNull(searchResultCache);
     }
+
+    protected int getBatchFetchChunkSize() {
+        return BATCH_FETCH_CHUNK_SIZE;
+    }
+
+    protected int getBulkUpsertChunkSize() {
+        return BULK_UPSERT_CHUNK_SIZE;
+    }
+
+    protected int getBulkUpdateMaxRows() {
+        return BULK_UPDATE_MAX_ROWS;
+    }
+
+    /**
+     * Whether {@link #find} goes through the {@link EntityCache}. Requires {@code service-framework.entity-cache.enabled=true}
+     * and the entity to be annotated with {@link CachedEntity}.
+     */
+    protected boolean isEntityCacheEnabled() {
+        return Objects.nonNull(entityCache) && entityClass.isAnnotationPresent(CachedEntity.class);
+    }
+
+    /**
+     * Called by every write path with the written entities so that caches of this entity can be refreshed.
+     */
+    protected void onEntitiesChanged(List<Entity> entities) {
+        if (Objects.nonNull(searchResultCache))
+            searchResultCache.invalidate(entityClass);
+        if (isEntityCacheEnabled())
+            entities.forEach(entityCache::refresh);
+    }
+
+    /**
+     * Sparse fieldset search: only the comma separated {@code fields} (joined paths use the filter {@code -} syntax)
+     * are selected as a tuple and copied onto new, unmanaged entity instances, every other attribute is left null.
+     * Rows are never hydrated as managed entities nor registered in the persistence context. Associations only
+     * needed for the selected fields are LEFT joined, so a null association yields null fields rather than no row.
+     * Sort keys outside {@code fields} are selected too when the filters make the query distinct, but not projected.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Entity> searchFields(String filters, Integer page, Integer fetchSize, String sortBy, String fields, CountStrategy countStrategy) throws RuntimeException {
+        recordFetchSize("searchFields", fetchSize);
+        Slice<Entity> result = timed("searchFields", filters, () -> getFields(filters, page, fetchSize, sortBy, fields, countStrategy));
+        recordResultSize("searchFields", result.getNumberOfElements());
+        return result;
+    }
+
+    private Slice<Entity> getFields(String filters, Integer page, Integer fetchSize, String sortBy, String fields, CountStrategy countStrategy) {
+        Pageable pageable = SearchHelper.getPageRequest(page, fetchSize, sortBy);
+        Specification<Entity> specification = new CustomSearchSpecification<>(filters);
+        List<String> fieldList = SearchHelper.getFields(fields);
+
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Entity> root = query.from(entityClass);
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (Objects.nonNull(predicate))
+            query.where(predicate);
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String field : fieldList) {
+            selections.add(SearchHelper.getSelectionPath(field, root));
+        }
+        if (pageable.getSort().isSorted())
+            query.orderBy(query.isDistinct()
+                    ? getSelectedOrders(pageable.getSort(), fieldList, selections, root, builder)
+                    : QueryUtils.toOrders(pageable.getSort(), root, builder));
+        query.multiselect(selections);
+
+        Slice<Tuple> tuples = getSlice(entityManager.createQuery(query), pageable, countStrategy, filters, specification);
+        return tuples.map(tuple -> SearchHelper.toProjection(entityClass, fieldList, tuple));
+    }
+
+    /**
+     * Orders of a distinct tuple query, which MySQL only accepts on selected columns (error 3065): every sort key is
+     * ordered by its selected path, keys outside {@code fields} are added to {@code selections} behind the fields.
+     */
+    private static List<Order> getSelectedOrders(Sort sort, List<String> fields, List<Selection<?>> selections,
+                                                 Root<?> root, CriteriaBuilder builder) {
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String field = order.getProperty().replace(".", SearchHelper.KEY_DELIMITER);
+            int index = fields.indexOf(field);
+            Path<?> path;
+            if (index > -1) {
+                path = (Path<?>) selections.get(index);
+            } else {
+                path = SearchHelper.getSelectionPath(field, root);
+                selections.add(path);
+            }
+            orders.add(order.isAscending() ? builder.asc(path) : builder.desc(path));
+        }
+        return orders;
+    }
+
+    private <T> Slice<T> getSlice(TypedQuery<T> query, Pageable pageable, CountStrategy countStrategy, String filters, Specification<Entity> specification) {
+        query.setFirstResult((int) pageable.getOffset());
+        if (CountStrategy.NONE.equals(countStrategy)) {
+            List<T> result = timedPhase("query", filters, null, () -> query.setMaxResults(pageable.getPageSize() + 1).getResultList());
+            boolean hasNext = result.size() > pageable.getPageSize();
+            if (hasNext)
+                result = new ArrayList<>(result.subList(0, pageable.getPageSize()));
+            return new SliceImpl<>(result, pageable, hasNext);
+        }
+        List<T> result = timedPhase("query", filters, null, () -> query.setMaxResults(pageable.getPageSize()).getResultList());
+        return PageableExecutionUtils.getPage(result, pageable, CountStrategy.ESTIMATED.equals(countStrategy)
+                ? () -> CountEstimateCache.getInstance().get(entityClass, filters, () -> timedPhase("count", filters, null, () -> count(specification)))
+                : () -> timedPhase("count", filters, null, () -> count(specification)));
+    }
+
+    /**
+     * Keyset pagination: rows are ordered by {@code sortBy} plus {@code id} and fetched strictly after
+     * the row encoded in {@code cursor}, so the cost of a page does not depend on its depth. {@code fetchSize} must be
+     * at least 1.
+     */
+    @Transactional(readOnly = true)
+    public CursorSlice<Entity> searchByCursor(String filters, String cursor, Integer fetchSize, String sortBy, String includes) throws RuntimeException {
+        if (Objects.isNull(fetchSize) || fetchSize < 1) {
+            throw new ServiceException(String.format("Invalid fetch size %s, at least 1 row has to be fetched", fetchSize));
+        }
+        recordFetchSize("searchByCursor", fetchSize);
+        CursorSlice<Entity> result = timed("searchByCursor", filters, () -> getByCursor(filters, cursor, fetchSize, sortBy, includes));
+        recordResultSize("searchByCursor", result.getNumberOfElements());
+        return result;
+    }
+
+    private CursorSlice<Entity> getByCursor(String filters, String cursor, Integer fetchSize, String sortBy, String includes) {
+        Sort sort = KeysetHelper.getKeysetSort(sortBy);
+        Specification<Entity> specification = Specification.where(new CustomSearchSpecification<Entity>(filters))
+                .and(KeysetHelper.getKeysetSpecification(sort, cursor));
+        List<Entity> result = timedPhase("query", filters, null, () -> createQuery(specification, sort)
+                .setMaxResults(fetchSize + 1)
+                .getResultList());
+        String nextCursor = null;
+        if (result.size() > fetchSize) {
+            result = new ArrayList<>(result.subList(0, fetchSize));
+            nextCursor = KeysetHelper.encodeCursor(sort, result.get(result.size() - 1));
+        }
+        if (Objects.nonNull(includes))
+            getResultWithIncludes(entityClass, includes, result);
+        return new CursorSlice<>(result, PageRequest.of(0, fetchSize, sort), nextCursor);
+    }
+
+    /**
+     * {@link #searchByCursor(String, String, Integer, String, String)} with every row converted by {@code mapper}
+     * before the transaction ends, so the mapper may still load lazy associations.
+     */
+    @Transactional(readOnly = true)
+    public <T> CursorSlice<T> searchByCursor(String filters, String cursor, Integer fetchSize, String sortBy, String includes,
+                                             Function<Entity, T> mapper) throws RuntimeException {
+        CursorSlice<Entity> slice = searchByCursor(filters, cursor, fetchSize, sortBy, includes);
+        List<T> content = slice.getContent().stream().map(mapper).collect(Collectors.toList());
+        return new CursorSlice<>(content, slice.getPageable(), slice.getNextCursor());
+    }
+
+    @Transactional(readOnly = true)
+    public CursorSlice<Entity> searchByCursor(SearchEntry searchEntry) throws RuntimeException {
+        return searchByCursor(searchEntry.getFilters(), searchEntry.getCursor(), searchEntry.getFetchSize(), searchEntry.getSortBy(), searchEntry.getIncludes());
+    }
+
+    /**
+     * Streams every row matching {@code filters} through a forward-only cursor. Each row is handed to
+     * {@code consumer} and then evicted from the persistence context, so memory stays flat regardless of
+     * the number of matches. With {@code includes} rows are read in keyset pages of
+     * {@link #getStreamIncludesBatchSize()} instead, as a streaming result set has to be fully read before
+     * the include queries can run on the same connection.
+     */
+    @Transactional(readOnly = true)
+    public void stream(String filters, String sortBy, String includes, Consumer<Entity> consumer) throws RuntimeException {
+        timed("stream", filters, () -> {
+            if (Objects.isNull(includes)) {
+                streamRows(filters, sortBy, consumer);
+            } else {
+                streamPages(filters, sortBy, includes, consumer);
+            }
+            return null;
+        });
+    }
+
+    private void streamRows(String filters, String sortBy, Consumer<Entity> consumer) {
+        TypedQuery<Entity> query = createQuery(new CustomSearchSpecification<>(filters), SearchHelper.getSort(sortBy))
+                .setHint(QueryHints.FETCH_SIZE, getStreamFetchSize())
+                .setHint(QueryHints.READ_ONLY, true);
+        try (Stream<Entity> rows = query.getResultStream()) {
+            rows.forEach(entity -> {
+                consumer.accept(entity);
+                entityManager.clear();
+            });
+        }
+    }
+
+    private void streamPages(String filters, String sortBy, String includes, Consumer<Entity> consumer) {
+        String cursor = null;
+        do {
+            CursorSlice<Entity> slice = getByCursor(filters, cursor, getStreamIncludesBatchSize(), sortBy, includes);
+            slice.getContent().forEach(consumer);
+            cursor = slice.getNextCursor();
+            // clear rather than detach so initialised includes are released as well
+            entityManager.clear();
+        } while (Objects.nonNull(cursor));
+    }
+
+    /**
+     * JDBC fetch size used by {@link #stream} without includes. {@link Integer#MIN_VALUE} makes MySQL Connector/J
+     * stream rows one at a time; override when the connection uses {@code useCursorFetch=true} or another database.
+     */
+    protected int getStreamFetchSize() {
+        return Integer.MIN_VALUE;
+    }
+
+    /**
+     * Keyset page size used by {@link #stream} when includes are requested.
+     */
+    protected int getStreamIncludesBatchSize() {
+        return STREAM_INCLUDES_BATCH_SIZE;
+    }
+
+    /**
+     * Unordered count of the rows matching {@code specification}; distinct ids are only counted
+     * when the filters joined a collection.
+     */
+    protected long count(Specification<Entity> specification) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<Entity> root = query.from(entityClass);
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (Objects.nonNull(predicate))
+            query.where(predicate);
+        Path<Long> id = root.get("id");
+        query.select(query.isDistinct() || SearchHelper.hasCollectionJoin(root) ? builder.countDistinct(id) : builder.count(id));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    protected TypedQuery<Entity> createQuery(Specification<Entity> specification, Sort sort) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Entity> query = builder.createQuery(entityClass);
+        Root<Entity> root = query.from(entityClass);
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (Objects.nonNull(predicate))
+            query.where(predicate);
+        if (sort.isSorted())
+            query.orderBy(QueryUtils.toOrders(sort, root, builder));
+        return entityManager.createQuery(query);
+    }
+
+    private void getResultWithIncludes(Class<Entity> clazz, String includes, List<Entity> result) throws RuntimeException {
+        timedPhase("includes", null, includes, () -> {
+            IncludesHelper.loadIncludes(entityManager, includes, result);
+            return result;
+        });
+    }
+
     @Transactional(rollbackFor = RuntimeException.class)
     public Entity delete(Long id) {
-        Entity entity = getRepository().getReferenceById(id);
-        entity.setDeletedAt(DateTime.now());
-        entity.setDeletedBy(Objects.nonNull(Context.getUserId()) ? Context.getUserId() : "System");
-        return getRepository().save(entity);
+        return timed("delete", null, () -> {
+            Entity entity = getRepository().getReferenceById(id);
+            entity.setDeletedAt(DateTime.now());
+            entity.setDeletedBy(getCurrentUser());
+            Entity result = getRepository().save(entity);
+            onEntitiesChanged(Collections.singletonList(result));
+            return result;
+        });
+    }
+
+    private <T> T timed(String operation, String filters, Supplier<T> call) {
+        return Objects.isNull(serviceMetrics) ? call.get() : serviceMetrics.record(entityClass, operation, filters, call);
+    }
+
+    /**
+     * Runs one search phase, recording it as a meter and as a {@link SearchPhaseEvent} for flight recordings.
+     */
+    private <T> T timedPhase(String phase, String filters, String includes, Supplier<T> call) {
+        SearchPhaseEvent event = new SearchPhaseEvent();
+        // resolved up front so that the recorded duration covers the phase only
+        FilterPlan plan = event.isEnabled() ? FilterPlanCache.getInstance().get(entityClass, filters) : null;
+        T result = null;
+        event.begin();
+        try {
+            result = Objects.isNull(serviceMetrics) ? call.get() : serviceMetrics.recordPhase(entityClass, phase, call);
+            return result;
+        } finally {
+            event.end();
+            // a recording started after the plan was skipped is picked up by the next phase
+            if (Objects.nonNull(plan) && event.shouldCommit()) {
+                event.entity = entityClass.getSimpleName();
+                event.phase = phase;
+                event.operators = plan.getOperators();
+                event.joins = plan.getJoinCount();
+                event.includes = includes;
+                event.rows = getRows(result);
+                event.commit();
+            }
+        }
+    }
+
+    private static long getRows(Object result) {
+        if (result instanceof Collection)
+            return ((Collection<?>) result).size();
+        if (result instanceof Slice)
+            return ((Slice<?>) result).getNumberOfElements();
+        if (result instanceof Number)
+            return ((Number) result).longValue();
+        return 0;
+    }
+
+    private void recordResultSize(String operation, int size) {
+        if (Objects.nonNull(serviceMetrics))
+            serviceMetrics.recordResultSize(entityClass, operation, size);
+    }
+
+    private void recordFetchSize(String operation, Integer fetchSize) {
+        if (Objects.nonNull(serviceMetrics))
+            serviceMetrics.recordFetchSize(entityClass, operation, fetchSize);
     }
 }
@@ -0,0 +1,192 @@
+package org.trips.service_framework.utils;
+
+import org.joda.time.ReadableInstant;
+import org.trips.service_framework.exceptions.ServiceException;
+import org.trips.service_framework.models.AggregateFunction;
+import org.trips.service_framework.models.AggregateResult;
+import org.trips.service_framework.models.CustomSearchSpecification;
+import org.trips.service_framework.models.DateBucket;
+import org.trips.service_framework.models.entries.AggregateEntry;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Builds the GROUP BY criteria queries behind {@code /aggregate} on top of the search filter DSL.
+ * <p>
+ * Filters with to-many joins repeat root rows: {@code count} then counts distinct ids, the other aggregates see
+ * every joined row.
+ */
+public class AggregateHelper {
+    private static final String KEY_VALUE_DELIMITER = ":";
+    private static final String ID_FIELD = "id";
+
+    public static <T> AggregateResult aggregate(EntityManager entityManager, Class<T> entityClass, AggregateEntry entry) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<T> root = query.from(entityClass);
+        query.where(new CustomSearchSpecification<T>(entry.getFilters()).toPredicate(root, query, builder));
+        query.distinct(false);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        List<Expression<?>> groupBy = new ArrayList<>();
+        List<Order> orders = new ArrayList<>();
+        for (String spec : getList(entry.getGroupBy())) {
+            for (Expression<?> expression : getGroupExpressions(spec, root, builder)) {
+                selections.add(expression);
+                groupBy.add(expression);
+                orders.add(builder.asc(expression));
+            }
+        }
+        List<String> aggregates = getList(entry.getAggregates()).isEmpty()
+                ? Collections.singletonList(AggregateFunction.COUNT.name)
+                : entry.getAggregates();
+        for (String spec : aggregates) {
+            selections.add(getAggregateExpression(spec, root, builder));
+        }
+        query.multiselect(selections).groupBy(groupBy).orderBy(orders);
+
+        List<Map<String, Object>> groups = new ArrayList<>();
+        for (Tuple tuple : entityManager.createQuery(query).setMaxResults(entry.getFetchSize()).getResultList()) {
+            Map<String, Object> group = new LinkedHashMap<>();
+            int index = 0;
+            for (String spec : getList(entry.getGroupBy())) {
+                DateBucket bucket = getBucket(spec);
+                if (Objects.isNull(bucket)) {
+                    group.put(spec, tuple.get(index++));
+                    continue;
+                }
+                Object[] parts = new Object[bucket.getParts().size()];
+                for (int i = 0; i < parts.length; i++) {
+                    parts[i] = tuple.get(index++);
+                }
+                group.put(spec, Objects.isNull(parts[0]) ? null : bucket.format(parts));
+            }
+            for (String spec : aggregates) {
+                group.put(spec, tuple.get(index++));
+            }
+            groups.add(group);
+        }
+
+        Map<String, List<AggregateResult.FacetValue>> facets = new LinkedHashMap<>();
+        for (String facet : getList(entry.getFacets())) {
+            facets.put(facet, getFacet(entityManager, entityClass, entry.getFilters(), facet, entry.getFacetSize()));
+        }
+        return new AggregateResult(groups, facets);
+    }
+
+    private static <T> List<AggregateResult.FacetValue> getFacet(EntityManager entityManager, Class<T> entityClass, String filters, String facet, int size) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<T> root = query.from(entityClass);
+        query.where(new CustomSearchSpecification<T>(filters).toPredicate(root, query, builder));
+        query.distinct(false);
+        Path<?> path = SearchHelper.getPath(facet, root);
+        Expression<Long> count = getCount(root, builder);
+        query.multiselect(path, count).groupBy(path).orderBy(builder.desc(count));
+
+        List<AggregateResult.FacetValue> values = new ArrayList<>();
+        for (Tuple tuple : entityManager.createQuery(query).setMaxResults(size).getResultList()) {
+            values.add(new AggregateResult.FacetValue(tuple.get(0), tuple.get(1, Long.class)));
+        }
+        return values;
+    }
+
+    private static List<Expression<?>> getGroupExpressions(String spec, Root<?> root, CriteriaBuilder builder) {
+        DateBucket bucket = getBucket(spec);
+        Path<?> path = SearchHelper.getPath(getPathKey(spec), root);
+        if (Objects.isNull(bucket)) {
+            return Collections.singletonList(path);
+        }
+        if (!isDate(path.getJavaType())) {
+            throw new ServiceException(String.format("%s is not a date and can not be bucketed", getPathKey(spec)));
+        }
+        List<Expression<?>> expressions = new ArrayList<>();
+        for (String part : bucket.getParts()) {
+            expressions.add(builder.function(part, Integer.class, path));
+        }
+        return expressions;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Expression<?> getAggregateExpression(String spec, Root<?> root, CriteriaBuilder builder) {
+        String[] parts = spec.split(KEY_VALUE_DELIMITER, 2);
+        AggregateFunction function = AggregateFunction.value(parts[0]);
+        if (Objects.isNull(function)) {
+            throw new ServiceException(String.format("%s is not a Valid Aggregate Function", parts[0]));
+        }
+        if (function == AggregateFunction.COUNT && parts.length == 1) {
+            return getCount(root, builder);
+        }
+        if (parts.length == 1) {
+            throw new ServiceException(String.format("%s requires a path, e.g. %s:id", parts[0], parts[0]));
+        }
+        Path path = SearchHelper.getPath(parts[1], root);
+        if ((function == AggregateFunction.SUM || function == AggregateFunction.AVG) && !isNumber(path.getJavaType())) {
+            throw new ServiceException(String.format("%s requires a numeric path, %s is a %s",
+                    function.name, parts[1], path.getJavaType().getSimpleName()));
+        }
+        switch (function) {
+            case COUNT:
+                return builder.count(path);
+            case COUNT_DISTINCT:
+                return builder.countDistinct(path);
+            case SUM:
+                return builder.sum(path);
+            case MIN:
+                return isNumber(path.getJavaType()) ? builder.min(path) : builder.least(path);
+            case MAX:
+                return isNumber(path.getJavaType()) ? builder.max(path) : builder.greatest(path);
+            default:
+                return builder.avg(path);
+        }
+    }
+
+    private static Expression<Long> getCount(Root<?> root, CriteriaBuilder builder) {
+        Path<?> id = root.get(ID_FIELD);
+        return SearchHelper.hasCollectionJoin(root) ? builder.countDistinct(id) : builder.count(id);
+    }
+
+    private static DateBucket getBucket(String spec) {
+        String[] parts = spec.split(KEY_VALUE_DELIMITER, 2);
+        if (parts.length == 1) {
+            return null;
+        }
+        DateBucket bucket = DateBucket.value(parts[1]);
+        if (Objects.isNull(bucket)) {
+            throw new ServiceException(String.format("%s is not a Valid Date Bucket", parts[1]));
+        }
+        return bucket;
+    }
+
+    private static String getPathKey(String spec) {
+        return spec.split(KEY_VALUE_DELIMITER, 2)[0];
+    }
+
+    private static boolean isDate(Class<?> type) {
+        return ReadableInstant.class.isAssignableFrom(type) || Date.class.isAssignableFrom(type) || Temporal.class.isAssignableFrom(type);
+    }
+
+    private static boolean isNumber(Class<?> type) {
+        return Number.class.isAssignableFrom(type) || (type.isPrimitive() && type != boolean.class && type != char.class);
+    }
+
+    private static List<String> getList(List<String> values) {
+        return Objects.isNull(values) ? Collections.emptyList() : values;
+    }
+}
@@ -0,0 +1,46 @@
+package org.trips.service_framework.utils;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Limits the number of tasks running on an unbounded executor, e.g. one creating a virtual thread per task.
+ * Submitting blocks while {@code maxConcurrency} tasks are running.
+ */
+public class BoundedExecutor implements Executor {
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+
+    public BoundedExecutor(ExecutorService delegate, int maxConcurrency) {
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException(e);
+        }
+        try {
+            delegate.execute(() -> {
+                try {
+                    command.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public void shutdown() {
+        delegate.shutdown();
+    }
+}
@@ -1,40 +1,127 @@
 package org.trips.service_framework.utils;
 
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
 import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 /**
  * Created By Abhinav Tripathi on 2019-05-10
+ * <p>
+ * The request context is one immutable {@link Snapshot} per thread. Work handed to other threads should go through
+ * {@link #wrap} so it runs with the submitting thread's snapshot, which is restored to the previous value afterwards.
+ * For gRPC calls the snapshot is bound to {@link io.grpc.Context} under {@link #GRPC_KEY}.
  */
 public class Context {
-    private final static ThreadLocal<String> userToken = new ThreadLocal<>();
-    private final static ThreadLocal<String> userId = new ThreadLocal<>();
-    private final static ThreadLocal<Boolean> dashboardRequest = new ThreadLocal<>();
+    public static final io.grpc.Context.Key<Snapshot> GRPC_KEY = io.grpc.Context.key("service-framework-context");
+
+    private final static ThreadLocal<Snapshot> current = new ThreadLocal<>();
 
     public static String getToken() {
-        return userToken.get();
+        return current().getToken();
     }
 
     public static String getUserId() {
-        return userId.get();
+        return current().getUserId();
     }
 
-    public static Boolean isDashboardRequest() {return dashboardRequest.get(); }
+    public static Boolean isDashboardRequest() {return current().getDashboardRequest(); }
 
     public static void setDashboardRequest(Boolean isDashboard) {
-        dashboardRequest.set(isDashboard);
+        Snapshot snapshot = current();
+        set(new Snapshot(snapshot.token, snapshot.userId, isDashboard));
     }
 
     public static void setUserToken(String token) {
-        userToken.set(token);
+        Snapshot snapshot = current();
+        set(new Snapshot(token, snapshot.userId, snapshot.dashboardRequest));
     }
 
     public static void setUserId(String availUserId) {
-        userId.set(availUserId);
+        Snapshot snapshot = current();
+        set(new Snapshot(snapshot.token, availUserId, snapshot.dashboardRequest));
     }
 
     public static void clean() {
-        userToken.remove();
-        userId.remove();
-        dashboardRequest.remove();
+        current.remove();
+    }
+
+    /**
+     * The context of this thread, falling back to the one bound to the current gRPC call.
+     */
+    public static Snapshot current() {
+        Snapshot snapshot = current.get();
+        if (Objects.isNull(snapshot)) {
+            snapshot = GRPC_KEY.get();
+        }
+        return Objects.nonNull(snapshot) ? snapshot : Snapshot.EMPTY;
+    }
+
+    /**
+     * Makes {@code snapshot} the context of this thread until the returned scope is closed.
+     */
+    public static Scope restore(Snapshot snapshot) {
+        Snapshot previous = current.get();
+        set(snapshot);
+        return () -> set(previous);
+    }
+
+    public static Runnable wrap(Runnable task) {
+        Snapshot snapshot = current();
+        return () -> {
+            try (Scope ignored = restore(snapshot)) {
+                task.run();
+            }
+        };
+    }
+
+    /**
+     * For {@link java.util.concurrent.CompletableFuture#supplyAsync(Supplier, Executor)} and similar.
+     */
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+        Snapshot snapshot = current();
+        return () -> {
+            try (Scope ignored = restore(snapshot)) {
+                return task.get();
+            }
+        };
+    }
+
+    /**
+     * An executor running every task with the context of the thread that submitted it.
+     */
+    public static Executor wrap(Executor executor) {
+        return task -> executor.execute(wrap(task));
+    }
+
+    private static void set(Snapshot snapshot) {
+        if (Objects.isNull(snapshot) || snapshot == Snapshot.EMPTY) {
+            current.remove();
+        } else {
+            current.set(snapshot);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Snapshot {
+        public static final Snapshot EMPTY = new Snapshot(null, null, null);
+
+        private final String token;
+        private final String userId;
+        private final Boolean dashboardRequest;
+
+        public static Snapshot of(String token, String userId, Boolean dashboardRequest) {
+            return new Snapshot(token, userId, dashboardRequest);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
     }
 }
@@ -0,0 +1,61 @@
+package org.trips.service_framework.utils;
+
+import lombok.Value;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Short lived cache of search totals backing the {@code estimated} count strategy.
+ */
+public class CountEstimateCache {
+    private static final int DEFAULT_MAX_SIZE = 1024;
+    private static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final CountEstimateCache INSTANCE = new CountEstimateCache(DEFAULT_MAX_SIZE, DEFAULT_TTL_MILLIS);
+
+    private final Map<CountKey, Estimate> estimates;
+    private final long ttlNanos;
+
+    public CountEstimateCache(int maxSize, long ttlMillis) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.estimates = Collections.synchronizedMap(new LinkedHashMap<CountKey, Estimate>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CountKey, Estimate> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    public static CountEstimateCache getInstance() {
+        return INSTANCE;
+    }
+
+    public long get(Class<?> entityClass, String filters, Supplier<Long> counter) {
+        CountKey key = new CountKey(entityClass, Objects.isNull(filters) ? StringUtils.EMPTY : filters);
+        long now = System.nanoTime();
+        Estimate estimate = estimates.get(key);
+        if (Objects.nonNull(estimate) && now - estimate.getComputedAt() < ttlNanos) {
+            return estimate.getCount();
+        }
+        long count = counter.get();
+        estimates.put(key, new Estimate(count, now));
+        return count;
+    }
+
+    @Value
+    private static class CountKey {
+        Class<?> entityClass;
+        String filters;
+    }
+
+    @Value
+    private static class Estimate {
+        long count;
+        long computedAt;
+    }
+}
@@ -0,0 +1,100 @@
+package org.trips.service_framework.utils;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Value;
+import org.apache.commons.lang3.StringUtils;
+import org.trips.service_framework.models.FilterPlan;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU of compiled {@link FilterPlan}s keyed by entity class and raw filter string.
+ */
+public class FilterPlanCache implements MeterBinder {
+    private static final int DEFAULT_MAX_SIZE = 1024;
+    private static final FilterPlanCache INSTANCE = new FilterPlanCache(DEFAULT_MAX_SIZE);
+
+    private final Map<PlanKey, FilterPlan> plans;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public FilterPlanCache(int maxSize) {
+        this.plans = Collections.synchronizedMap(new LinkedHashMap<PlanKey, FilterPlan>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PlanKey, FilterPlan> eldest) {
+                if (size() > maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        });
+    }
+
+    public static FilterPlanCache getInstance() {
+        return INSTANCE;
+    }
+
+    public FilterPlan get(Class<?> entityClass, String filters) {
+        PlanKey key = new PlanKey(entityClass, Objects.isNull(filters) ? StringUtils.EMPTY : filters);
+        FilterPlan plan = plans.get(key);
+        if (Objects.nonNull(plan)) {
+            hits.incrementAndGet();
+            return plan;
+        }
+        misses.incrementAndGet();
+        plan = FilterPlan.compile(key.getFilters());
+        FilterPlan existing = plans.putIfAbsent(key, plan);
+        return Objects.nonNull(existing) ? existing : plan;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public int size() {
+        return plans.size();
+    }
+
+    public void clear() {
+        plans.clear();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("search.filter.plan.cache.requests", this, FilterPlanCache::getHitCount)
+                .tag("result", "hit")
+                .description("Filter plan lookups served from cache")
+                .register(registry);
+        FunctionCounter.builder("search.filter.plan.cache.requests", this, FilterPlanCache::getMissCount)
+                .tag("result", "miss")
+                .description("Filter plan lookups that required parsing")
+                .register(registry);
+        FunctionCounter.builder("search.filter.plan.cache.evictions", this, FilterPlanCache::getEvictionCount)
+                .register(registry);
+        Gauge.builder("search.filter.plan.cache.size", this, FilterPlanCache::size)
+                .register(registry);
+    }
+
+    @Value
+    private static class PlanKey {
+        Class<?> entityClass;
+        String filters;
+    }
+}
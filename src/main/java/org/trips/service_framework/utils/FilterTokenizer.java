@@ -0,0 +1,199 @@
+package org.trips.service_framework.utils;
+
+import org.trips.service_framework.exceptions.ServiceException;
+import org.trips.service_framework.jfr.FilterParseEvent;
+import org.trips.service_framework.models.FilterClause;
+import org.trips.service_framework.models.SearchOperator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Single pass tokenizer of the filter DSL: {@code key.operator[:value]} clauses separated by {@code ;}, AND groups
+ * separated by {@code __} and OR-ed. Every clause is kept in input order, repeated keys included.
+ * <p>
+ * Within values {@code \;}, {@code \_} and {@code \\} stand for {@code ;}, {@code _} and {@code \}, every other
+ * backslash is literal ({@code C:\tmp}, {@code 50\%}). Values of {@code in}/{@code nin} additionally escape commas as
+ * {@code \,}; they keep {@code \,} and {@code \\} until {@link #splitValues} splits them on unescaped commas.
+ * Errors report the zero based position in the filter string.
+ */
+public final class FilterTokenizer {
+    private static final char CLAUSE_DELIMITER = ';';
+    private static final char OPERATOR_DELIMITER = '.';
+    private static final char VALUE_DELIMITER = ':';
+    private static final char GROUP_DELIMITER = '_';
+    private static final char LIST_DELIMITER = ',';
+    private static final char ESCAPE = '\\';
+
+    private FilterTokenizer() {
+    }
+
+    public static List<List<FilterClause>> tokenize(String filters) {
+        return tokenize(filters, true);
+    }
+
+    /**
+     * @param splitGroups whether {@code __} separates groups, without it the result has a single group
+     */
+    public static List<List<FilterClause>> tokenize(String filters, boolean splitGroups) {
+        FilterParseEvent event = new FilterParseEvent();
+        event.begin();
+        int length = Objects.isNull(filters) ? 0 : filters.length();
+        List<List<FilterClause>> groups = new ArrayList<>(1);
+        List<FilterClause> clauses = new ArrayList<>(4);
+        // Without escapes or group delimiters a value simply ends at the next ';'
+        boolean plain = length > 0 && filters.indexOf(ESCAPE) < 0 && !(splitGroups && filters.contains("__"));
+        int position = 0;
+        try {
+            while (position < length) {
+                char c = filters.charAt(position);
+                if (c == CLAUSE_DELIMITER) {
+                    position++;
+                } else if (splitGroups && isGroupDelimiter(filters, position)) {
+                    if (!clauses.isEmpty()) {
+                        groups.add(Collections.unmodifiableList(clauses));
+                        clauses = new ArrayList<>(4);
+                    }
+                    position += 2;
+                } else {
+                    position = readClause(filters, position, splitGroups, plain, clauses);
+                }
+            }
+            if (!clauses.isEmpty() || groups.isEmpty()) {
+                groups.add(Collections.unmodifiableList(clauses));
+            }
+            return Collections.unmodifiableList(groups);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.filterLength = length;
+                // clauses of a group that failed to parse are not counted
+                event.clauses = groups.stream().mapToInt(List::size).sum();
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Splits an {@code in}/{@code nin} value on unescaped commas and resolves {@code \,} and {@code \\}.
+     */
+    public static List<String> splitValues(String value) {
+        List<String> values = new ArrayList<>();
+        if (value.indexOf(ESCAPE) < 0) {
+            int start = 0;
+            for (int index = value.indexOf(LIST_DELIMITER); index >= 0; index = value.indexOf(LIST_DELIMITER, start)) {
+                values.add(value.substring(start, index));
+                start = index + 1;
+            }
+            values.add(value.substring(start));
+            return values;
+        }
+        StringBuilder current = new StringBuilder();
+        for (int position = 0; position < value.length(); position++) {
+            char c = value.charAt(position);
+            if (c == ESCAPE && position + 1 < value.length() && isListEscape(value.charAt(position + 1))) {
+                current.append(value.charAt(++position));
+            } else if (c == LIST_DELIMITER) {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private static int readClause(String filters, int start, boolean splitGroups, boolean plain, List<FilterClause> clauses) {
+        int length = filters.length();
+        int position = start;
+        while (position < length && filters.charAt(position) != OPERATOR_DELIMITER) {
+            char c = filters.charAt(position);
+            if (c == CLAUSE_DELIMITER || c == VALUE_DELIMITER || (splitGroups && isGroupDelimiter(filters, position))) {
+                break;
+            }
+            position++;
+        }
+        if (position == start) {
+            throw error("Missing key", start);
+        }
+        if (position == length || filters.charAt(position) != OPERATOR_DELIMITER) {
+            throw error(String.format("Missing operator for key %s", filters.substring(start, position)), position);
+        }
+        String key = filters.substring(start, position);
+
+        int operatorStart = ++position;
+        while (position < length) {
+            char c = filters.charAt(position);
+            if (c == VALUE_DELIMITER || c == CLAUSE_DELIMITER || (splitGroups && isGroupDelimiter(filters, position))) {
+                break;
+            }
+            position++;
+        }
+        String operatorName = filters.substring(operatorStart, position);
+        SearchOperator operator = SearchOperator.value(operatorName);
+        if (Objects.isNull(operator)) {
+            throw error(String.format("%s is not a Valid Search Operator", operatorName), operatorStart);
+        }
+
+        String value = null;
+        if (plain && position < length && filters.charAt(position) == VALUE_DELIMITER) {
+            int end = filters.indexOf(CLAUSE_DELIMITER, ++position);
+            value = filters.substring(position, end < 0 ? length : end);
+            position = end < 0 ? length : end;
+        } else if (position < length && filters.charAt(position) == VALUE_DELIMITER) {
+            boolean list = SearchOperator.IN.equals(operator) || SearchOperator.NOT_IN.equals(operator);
+            int valueStart = ++position;
+            StringBuilder unescaped = null;
+            int copied = valueStart;
+            while (position < length) {
+                char c = filters.charAt(position);
+                if (c == ESCAPE && isEscape(filters, position + 1, list)) {
+                    char escaped = filters.charAt(position + 1);
+                    // lists keep \\ and \, for splitValues, which resolves them after splitting on commas
+                    if (!list || !isListEscape(escaped)) {
+                        if (Objects.isNull(unescaped)) {
+                            unescaped = new StringBuilder(length - valueStart);
+                        }
+                        unescaped.append(filters, copied, position).append(escaped);
+                        copied = position + 2;
+                    }
+                    position += 2;
+                } else if (c == CLAUSE_DELIMITER || (splitGroups && isGroupDelimiter(filters, position))) {
+                    break;
+                } else {
+                    position++;
+                }
+            }
+            value = Objects.isNull(unescaped)
+                    ? filters.substring(valueStart, position)
+                    : unescaped.append(filters, copied, position).toString();
+        }
+        clauses.add(new FilterClause(operator, key, value));
+        return position;
+    }
+
+    private static boolean isEscape(String filters, int position, boolean list) {
+        if (position >= filters.length()) {
+            return false;
+        }
+        char c = filters.charAt(position);
+        return c == CLAUSE_DELIMITER || c == GROUP_DELIMITER || c == ESCAPE || (list && c == LIST_DELIMITER);
+    }
+
+    private static boolean isListEscape(char c) {
+        return c == LIST_DELIMITER || c == ESCAPE;
+    }
+
+    private static boolean isGroupDelimiter(String filters, int position) {
+        return filters.charAt(position) == GROUP_DELIMITER
+                && position + 1 < filters.length()
+                && filters.charAt(position + 1) == GROUP_DELIMITER;
+    }
+
+    private static ServiceException error(String message, int position) {
+        return new ServiceException(String.format("%s at position %d of the filters", message, position));
+    }
+}
@@ -0,0 +1,84 @@
+package org.trips.service_framework.utils;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Bounded executors used by the framework. A saturated batch fetch pool runs the task on the submitting thread, which
+ * throttles callers. A saturated async controller pool rejects the request (503) on Java 11-20 and makes the request
+ * thread wait on Java 21+, it never runs the request's JDBC work on the servlet thread it is meant to free.
+ * <p>
+ * Deliberately not registered as {@link Executor} beans, those would replace Spring Boot's default
+ * {@code applicationTaskExecutor}.
+ */
+@Slf4j
+@Getter
+public class FrameworkExecutors {
+    /**
+     * Runs the IN chunks of {@code BaseService.findAll(Collection)} in parallel, every task holds a connection.
+     */
+    private final Executor batchFetchExecutor;
+
+    /**
+     * Runs the endpoints of {@code AsyncBaseController}. On Java 21+ every request gets a virtual thread, at most
+     * {@code maxConcurrency} at a time, otherwise a fixed pool of that size is used.
+     */
+    private final Executor controllerAsyncExecutor;
+
+    public FrameworkExecutors(int batchFetchPoolSize, int batchFetchQueueCapacity, int asyncMaxConcurrency, int asyncQueueCapacity) {
+        this.batchFetchExecutor = newThreadPool("batch-fetch-", batchFetchPoolSize, batchFetchQueueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+        ExecutorService virtualThreadExecutor = newVirtualThreadExecutor();
+        if (Objects.nonNull(virtualThreadExecutor)) {
+            log.info("Using virtual threads for async controllers");
+            this.controllerAsyncExecutor = new BoundedExecutor(virtualThreadExecutor, asyncMaxConcurrency);
+        } else {
+            this.controllerAsyncExecutor = newThreadPool("controller-async-", asyncMaxConcurrency, asyncQueueCapacity, new ThreadPoolExecutor.AbortPolicy());
+        }
+    }
+
+    public void shutdown() {
+        for (Executor executor : new Executor[]{batchFetchExecutor, controllerAsyncExecutor}) {
+            if (executor instanceof ThreadPoolTaskExecutor) {
+                ((ThreadPoolTaskExecutor) executor).shutdown();
+            } else if (executor instanceof BoundedExecutor) {
+                ((BoundedExecutor) executor).shutdown();
+            }
+        }
+    }
+
+    private static ThreadPoolTaskExecutor newThreadPool(String threadNamePrefix, int poolSize, int queueCapacity, RejectedExecutionHandler rejectedExecutionHandler) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setRejectedExecutionHandler(rejectedExecutionHandler);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * {@code Executors.newVirtualThreadPerTaskExecutor()} looked up reflectively, the framework is compiled for Java 11.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads are not available", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.trips.service_framework.utils;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.Hibernate;
+import org.springframework.beans.BeanUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.ManagedType;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Initialises the associations named in a search {@code includes} parameter for a whole result list at once.
+ * Every include path costs one {@code join fetch} query per chunk of owners instead of one query per row,
+ * and nested paths ({@code driver.vehicle}) are resolved level by level on the loaded targets. Element collections
+ * are fetched the same way but end a path, their elements are not entities.
+ * <p>
+ * Fetch joins are not applied to the search query itself as collection fetches combined with
+ * {@code firstResult/maxResults} are paginated in memory by Hibernate.
+ */
+@Slf4j
+public class IncludesHelper {
+    private static final String INCLUDES_DELIMITER = ",";
+    private static final String PATH_DELIMITER = ".";
+    private static final int BATCH_SIZE = 500;
+    private static final Map<Class<?>, Map<String, Optional<IncludeAttribute>>> ATTRIBUTES = new ConcurrentHashMap<>();
+
+    public static void loadIncludes(EntityManager entityManager, String includes, List<?> entities) {
+        if (Objects.isNull(includes) || entities.isEmpty()) {
+            return;
+        }
+        loadIncludes(entityManager, parseIncludes(includes), entities);
+    }
+
+    private static void loadIncludes(EntityManager entityManager, IncludeTree includes, Collection<?> entities) {
+        Map<Class<?>, List<Object>> entitiesByClass = new LinkedHashMap<>();
+        for (Object entity : entities) {
+            entitiesByClass.computeIfAbsent(Hibernate.getClass(entity), key -> new ArrayList<>()).add(entity);
+        }
+        for (Map.Entry<Class<?>, List<Object>> group : entitiesByClass.entrySet()) {
+            for (Map.Entry<String, IncludeTree> include : includes.entrySet()) {
+                Optional<IncludeAttribute> attribute = getAttribute(entityManager, group.getKey(), include.getKey());
+                if (attribute.isPresent()) {
+                    List<Object> targets = fetch(entityManager, group.getKey(), attribute.get(), group.getValue());
+                    if (!include.getValue().isEmpty() && !targets.isEmpty()) {
+                        loadIncludes(entityManager, include.getValue(), targets);
+                    }
+                }
+            }
+        }
+    }
+
+    private static List<Object> fetch(EntityManager entityManager, Class<?> clazz, IncludeAttribute attribute, List<Object> owners) {
+        List<Object> pending = new ArrayList<>();
+        for (Object owner : owners) {
+            if (!Hibernate.isInitialized(attribute.getValue(owner))) {
+                pending.add(owner);
+            }
+        }
+        String query = String.format("select e from %s e left join fetch e.%s where e in :entities",
+                entityManager.getMetamodel().entity(clazz).getName(), attribute.getName());
+        for (int i = 0; i < pending.size(); i += BATCH_SIZE) {
+            entityManager.createQuery(query)
+                    .setParameter("entities", pending.subList(i, Math.min(i + BATCH_SIZE, pending.size())))
+                    .getResultList();
+        }
+
+        List<Object> targets = new ArrayList<>();
+        for (Object owner : owners) {
+            Object value = attribute.getValue(owner);
+            if (Objects.isNull(value)) {
+                continue;
+            }
+            // no-op for loaded collections, resolves to-one proxies from the persistence context
+            Hibernate.initialize(value);
+            if (attribute.isElementCollection()) {
+                continue;
+            }
+            if (value instanceof Collection) {
+                targets.addAll((Collection<?>) value);
+            } else if (value instanceof Map) {
+                targets.addAll(((Map<?, ?>) value).values());
+            } else {
+                targets.add(value);
+            }
+        }
+        return targets;
+    }
+
+    private static Optional<IncludeAttribute> getAttribute(EntityManager entityManager, Class<?> clazz, String name) {
+        return ATTRIBUTES.computeIfAbsent(clazz, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(name, key -> resolveAttribute(entityManager, clazz, name));
+    }
+
+    private static Optional<IncludeAttribute> resolveAttribute(EntityManager entityManager, Class<?> clazz, String name) {
+        try {
+            ManagedType<?> managedType = entityManager.getMetamodel().managedType(clazz);
+            Attribute<?, ?> attribute = managedType.getAttribute(name);
+            PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(clazz, name);
+            boolean elementCollection = !attribute.isAssociation() && attribute.isCollection();
+            if ((!attribute.isAssociation() && !elementCollection) || Objects.isNull(descriptor) || Objects.isNull(descriptor.getReadMethod())) {
+                return Optional.empty();
+            }
+            return Optional.of(new IncludeAttribute(name, descriptor.getReadMethod(), elementCollection));
+        } catch (IllegalArgumentException e) {
+            log.error("{} is not an attribute of {}", name, clazz.getSimpleName());
+            return Optional.empty();
+        }
+    }
+
+    private static IncludeTree parseIncludes(String includes) {
+        IncludeTree tree = new IncludeTree();
+        for (String include : includes.split(INCLUDES_DELIMITER)) {
+            IncludeTree node = tree;
+            for (String name : StringUtils.split(include.trim(), PATH_DELIMITER)) {
+                node = node.computeIfAbsent(name, key -> new IncludeTree());
+            }
+        }
+        return tree;
+    }
+
+    private static class IncludeTree extends LinkedHashMap<String, IncludeTree> {
+    }
+
+    @Value
+    private static class IncludeAttribute {
+        String name;
+        Method getter;
+        boolean elementCollection;
+
+        Object getValue(Object entity) {
+            try {
+                return getter.invoke(entity);
+            } catch (Exception e) {
+                log.error("Error Occurred while fetching lazy loaded entity");
+                return null;
+            }
+        }
+    }
+}
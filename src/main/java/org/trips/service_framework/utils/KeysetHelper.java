@@ -0,0 +1,138 @@
+package org.trips.service_framework.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.joda.JodaModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+import org.trips.service_framework.exceptions.ServiceException;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Keyset (seek) pagination support. Pages are ordered by the requested sort keys followed by {@code id},
+ * and the continuation token carries the sort key values of the last row returned.
+ * <p>
+ * Null ordering follows MySQL: nulls come first in ascending order and last in descending order.
+ */
+public class KeysetHelper {
+    private static final String ID = "id";
+    private static final String PATH_DELIMITER = "\\.";
+    private static final String SORT_FIELD = "s";
+    private static final String VALUES_FIELD = "v";
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JodaModule())
+            .registerModule(new JavaTimeModule());
+
+    public static Sort getKeysetSort(String sortBy) {
+        Sort sort = SearchHelper.getSort(sortBy);
+        if (Objects.isNull(sort.getOrderFor(ID))) {
+            sort = sort.and(Sort.by(Sort.Direction.ASC, ID));
+        }
+        return sort;
+    }
+
+    public static String encodeCursor(Sort sort, Object lastRow) {
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(lastRow);
+        ObjectNode cursor = MAPPER.createObjectNode();
+        cursor.put(SORT_FIELD, sort.toString());
+        ArrayNode values = cursor.putArray(VALUES_FIELD);
+        for (Sort.Order order : sort) {
+            values.add(MAPPER.valueToTree(wrapper.getPropertyValue(order.getProperty())));
+        }
+        try {
+            byte[] json = MAPPER.writeValueAsBytes(cursor);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (Exception e) {
+            throw new ServiceException("Unable to create search cursor", e);
+        }
+    }
+
+    /**
+     * Returns a specification matching rows strictly after the row encoded in {@code cursor},
+     * or {@code null} when the cursor is empty (first page).
+     */
+    public static <T> Specification<T> getKeysetSpecification(Sort sort, String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+        JsonNode values = decodeCursor(sort, cursor);
+        return (root, query, builder) -> {
+            List<Sort.Order> orders = sort.toList();
+            List<Predicate> disjunction = new ArrayList<>();
+            List<Predicate> equalities = new ArrayList<>();
+            for (int i = 0; i < orders.size(); i++) {
+                Sort.Order order = orders.get(i);
+                Path path = getPath(root, order.getProperty());
+                Object value = toValue(values.get(i), path.getJavaType());
+                Predicate after = getAfterPredicate(builder, path, value, order.isAscending());
+                if (Objects.nonNull(after)) {
+                    List<Predicate> conjunction = new ArrayList<>(equalities);
+                    conjunction.add(after);
+                    disjunction.add(builder.and(conjunction.toArray(new Predicate[0])));
+                }
+                equalities.add(Objects.isNull(value) ? builder.isNull(path) : builder.equal(path, value));
+            }
+            return builder.or(disjunction.toArray(new Predicate[0]));
+        };
+    }
+
+    private static Predicate getAfterPredicate(CriteriaBuilder builder, Path path, Object value, boolean ascending) {
+        if (Objects.isNull(value)) {
+            return ascending ? builder.isNotNull(path) : null;
+        }
+        if (ascending) {
+            return builder.greaterThan((Expression<Comparable>) path, (Comparable) value);
+        }
+        return builder.or(builder.lessThan((Expression<Comparable>) path, (Comparable) value), builder.isNull(path));
+    }
+
+    private static JsonNode decodeCursor(Sort sort, String cursor) {
+        JsonNode node;
+        try {
+            node = MAPPER.readTree(Base64.getUrlDecoder().decode(cursor.getBytes(StandardCharsets.US_ASCII)));
+        } catch (Exception e) {
+            throw new ServiceException("Invalid search cursor", e);
+        }
+        JsonNode values = node.get(VALUES_FIELD);
+        if (!sort.toString().equals(node.path(SORT_FIELD).asText()) || Objects.isNull(values)
+                || !values.isArray() || values.size() != sort.toList().size()) {
+            throw new ServiceException("Search cursor does not match the requested sort order");
+        }
+        return values;
+    }
+
+    private static Object toValue(JsonNode node, Class<?> javaType) {
+        if (Objects.isNull(node) || node.isNull()) {
+            return null;
+        }
+        try {
+            return MAPPER.convertValue(node, javaType);
+        } catch (IllegalArgumentException e) {
+            throw new ServiceException("Invalid search cursor", e);
+        }
+    }
+
+    private static Path getPath(Root<?> root, String property) {
+        Path path = root;
+        for (String attribute : property.split(PATH_DELIMITER)) {
+            path = path.get(attribute);
+        }
+        return path;
+    }
+}
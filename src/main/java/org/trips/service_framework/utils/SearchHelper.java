@@ -1,19 +1,34 @@
 package org.trips.service_framework.utils;
 
-import org.joda.time.LocalDate;
 import org.trips.service_framework.exceptions.ServiceException;
+import org.trips.service_framework.jfr.PredicateBuildEvent;
+import org.trips.service_framework.models.CountStrategy;
+import org.trips.service_framework.models.FilterClause;
 import org.trips.service_framework.models.SearchOperator;
+import org.trips.service_framework.models.annotations.CaseInsensitive;
+import org.trips.service_framework.models.annotations.FullText;
 import lombok.extern.slf4j.Slf4j;
-import org.joda.time.DateTime;
-import org.joda.time.format.ISODateTimeFormat;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.PropertyAccessorFactory;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
+import javax.persistence.Tuple;
 import javax.persistence.criteria.*;
+import javax.persistence.metamodel.Attribute;
 import javax.validation.constraints.NotNull;
+import java.beans.PropertyDescriptor;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -21,11 +36,14 @@ import java.util.stream.Collectors;
  */
 @Slf4j
 public class SearchHelper {
-    private static final String SEARCH_DELIMITER = ";";
     private static final String KEY_VALUE_DELIMITER = ":";
-    private static final String OPERATOR_DELIMITER = "\\.";
     private static final String IN_VALUES_DELIMITER = ",";
-    private static final String KEY_DELIMITER = "-";
+    public static final String KEY_DELIMITER = "-";
+    public static final String LEFT_JOIN_SUFFIX = "~";
+    public static final String MATCH_AGAINST_FUNCTION = "match_against";
+    private static final String ID_FIELD = "id";
+    private static final ValueConverterRegistry CONVERTERS = ValueConverterRegistry.getInstance();
+    private static final Map<Class<? extends Annotation>, Map<Class<?>, Map<String, Boolean>>> ANNOTATED_ATTRIBUTES = new ConcurrentHashMap<>();
     private static final String JSONB_OPERATOR_AND_DELIMITER = "&&";
     private static final String JSONB_OPERATOR_KEY_VALUE_DELIMITER = "\\|";
 
@@ -39,141 +57,97 @@ public class SearchHelper {
      */
     @NotNull
     public static Map<SearchOperator, Map<String, String>> parseSearchParams(String filters) throws ServiceException {
-        Map<SearchOperator, Map<String, String>> params = new HashMap<>();
-        Map<String, String> inParams = new HashMap<>();
-        Map<String, String> notInParams = new HashMap<>();
-        Map<String, String> eqParams = new HashMap<>();
-        Map<String, String> neParams = new HashMap<>();
-        Map<String, String> isNullParams = new HashMap<>();
-        Map<String, String> isNotNullParams = new HashMap<>();
-        Map<String, String> gtParams = new HashMap<>();
-        Map<String, String> ltParams = new HashMap<>();
-        Map<String, String> leParams = new HashMap<>();
-        Map<String, String> geParams = new HashMap<>();
-        Map<String, String> likeParams = new HashMap<>();
-        Map<String, String> nlParams = new HashMap<>();
-
-
-        Map<String, String> jsonbPathParams = new HashMap<>();
-        Map<String, String> jsonbPathExists = new HashMap<>();
-        Map<String, String> jsonbPathContains = new HashMap<>();
-
-
+        Map<SearchOperator, Map<String, String>> params = new EnumMap<>(SearchOperator.class);
         if (StringUtils.isEmpty(filters)) {
             return params;
-        } else {
-            String[] filterArray = filters.split(SEARCH_DELIMITER);
-            for (String filter : filterArray) {
-                try {
-                    // Skip over the filter if it's empty
-                    if (filter.isEmpty()){
-                        continue;
-                    }
-                    String key, value;
-                    int index = filter.indexOf(KEY_VALUE_DELIMITER);
-                    if (index == -1) {
-                        key = filter;
-                        value = null;
-                    } else {
-                        String[] splitFilter = filter.split(KEY_VALUE_DELIMITER, 2);
-                        value = splitFilter[1];
-                        key = splitFilter[0];
-                    }
-                    String[] keyAndOperator = key.split(OPERATOR_DELIMITER);
-                    String keyName = keyAndOperator[0];
-                    String operator = keyAndOperator[1];
-                    SearchOperator searchOperator = SearchOperator.value(operator);
-                    if (Objects.isNull(searchOperator)) {
-                        throw new ServiceException(String.format("%s is not a Valid Search Operator", operator));
-                    }
-                    switch (searchOperator) {
-                        case IN:
-                            inParams.put(keyName, value);
-                            break;
-                        case NOT_IN:
-                            notInParams.put(keyName, value);
-                            break;
-                        case EQUAL_TO:
-                            eqParams.put(keyName, value);
-                            break;
-                        case IS_NULL:
-                            isNullParams.put(keyName, value);
-                            break;
-                        case IS_NOT_NULL:
-                            isNotNullParams.put(keyName, value);
-                            break;
-                        case NOT_EQUAL_TO:
-                            neParams.put(keyName, value);
-                            break;
-                        case GREATER_THAN:
-                            gtParams.put(keyName, value);
-                            break;
-                        case LESS_THAN:
-                            ltParams.put(keyName, value);
-                            break;
-                        case LESS_THAN_EQUAL_TO:
-                            leParams.put(keyName, value);
-                            break;
-                        case GREATER_THAN_EQUAL_TO:
-                            geParams.put(keyName, value);
-                            break;
-                        case LIKE:
-                            likeParams.put(keyName, value);
-                            break;
-                        case NOT_LIKE:
-                            nlParams.put(keyName, value);
-                            break;
-                        case JSONB_PATH_EQUALS:
-                            jsonbPathParams.put(keyName, value);
-                            break;
-                        case JSONB_PATH_EXISTS:
-                            jsonbPathExists.put(keyName, value);
-                            break;
-                        case JSONB_PATH_CONTAINS:
-                            jsonbPathContains.put(keyName, value);
-                            break;
-                    }
-                } catch (ArrayIndexOutOfBoundsException ex) {
-                    throw new ServiceException("Search Parameters are not in defined format");
-                }
+        }
+        for (SearchOperator searchOperator : SearchOperator.values()) {
+            params.put(searchOperator, Collections.emptyMap());
+        }
+        // A repeated key keeps its last value here, FilterPlan keeps every clause
+        for (FilterClause clause : FilterTokenizer.tokenize(filters, false).get(0)) {
+            Map<String, String> operatorParams = params.get(clause.getOperator());
+            if (operatorParams.isEmpty()) {
+                operatorParams = new HashMap<>(4);
+                params.put(clause.getOperator(), operatorParams);
             }
-            params.put(SearchOperator.IN, inParams);
-            params.put(SearchOperator.NOT_IN, notInParams);
-            params.put(SearchOperator.EQUAL_TO, eqParams);
-            params.put(SearchOperator.IS_NULL, isNullParams);
-            params.put(SearchOperator.IS_NOT_NULL, isNotNullParams);
-            params.put(SearchOperator.NOT_EQUAL_TO, neParams);
-            params.put(SearchOperator.GREATER_THAN, gtParams);
-            params.put(SearchOperator.LESS_THAN, ltParams);
-            params.put(SearchOperator.LESS_THAN_EQUAL_TO, leParams);
-            params.put(SearchOperator.GREATER_THAN_EQUAL_TO, geParams);
-            params.put(SearchOperator.LIKE, likeParams);
-            params.put(SearchOperator.NOT_LIKE, nlParams);
-            params.put(SearchOperator.JSONB_PATH_EQUALS, jsonbPathParams);
-            params.put(SearchOperator.JSONB_PATH_EXISTS, jsonbPathExists);
-            params.put(SearchOperator.JSONB_PATH_CONTAINS, jsonbPathContains);
-
+            operatorParams.put(clause.getKey(), clause.getValue());
         }
         return params;
     }
 
     public static Predicate[] getPredicatesFromSearchParams(Map<SearchOperator, Map<String, String>> searchParams, Root root, CriteriaBuilder builder) {
+        PredicateBuildEvent event = new PredicateBuildEvent();
+        event.begin();
         List<Predicate> predicateList = new ArrayList<>();
-        for (Map.Entry<SearchOperator, Map<String, String>> entry : searchParams.entrySet()) {
-            for (Map.Entry<String, String> e : entry.getValue().entrySet()) {
-                addPredicate(entry.getKey(), e.getKey(), e.getValue(), root, predicateList, builder);
+        try {
+            for (Map.Entry<SearchOperator, Map<String, String>> entry : searchParams.entrySet()) {
+                for (Map.Entry<String, String> e : entry.getValue().entrySet()) {
+                    addPredicate(entry.getKey(), e.getKey(), e.getValue(), root, predicateList, builder);
+                }
             }
+            return predicateList.toArray(new Predicate[0]);
+        } finally {
+            commit(event, root, predicateList.size());
         }
-        Predicate[] predicates = new Predicate[predicateList.size()];
-        return predicateList.toArray(predicates);
     }
 
-    private static <T extends Enum<T>> Collection<T> getFilterEnum(Class<T> enumClass, Set<String> filterVal) {
-        List<T> result = new ArrayList<>();
-        if (!filterVal.isEmpty()) {
-            result = filterVal.stream().map(value -> Enum.valueOf(enumClass, value)).collect(Collectors.toList());
+    public static Predicate[] getPredicatesFromClauses(List<FilterClause> clauses, Root root, CriteriaBuilder builder) {
+        PredicateBuildEvent event = new PredicateBuildEvent();
+        event.begin();
+        List<Predicate> predicateList = new ArrayList<>();
+        try {
+            for (FilterClause clause : clauses) {
+                addPredicate(clause.getOperator(), clause.getKey(), clause.getValue(), root, predicateList, builder);
+            }
+            return predicateList.toArray(new Predicate[0]);
+        } finally {
+            commit(event, root, predicateList.size());
         }
-        return result;
+    }
+
+    private static void commit(PredicateBuildEvent event, Root root, int predicates) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.entity = root.getJavaType().getSimpleName();
+            event.predicates = predicates;
+            event.commit();
+        }
+    }
+
+    private static Set<Object> convertValues(Path path, String value) {
+        ValueConverter<?> converter = CONVERTERS.resolve(path);
+        Set<Object> values = new HashSet<>();
+        for (String element : FilterTokenizer.splitValues(value)) {
+            values.add(CONVERTERS.convert(converter, path, element));
+        }
+        return values;
+    }
+
+    /**
+     * Whether the attribute field or getter, or with {@code onEntity} its entity, carries {@code annotation}, so both
+     * field and property access mappings are covered. Cached per annotation, entity and attribute.
+     */
+    private static boolean isAnnotated(Path path, Class<? extends Annotation> annotation, boolean onEntity) {
+        if (!(path.getModel() instanceof Attribute)) {
+            return false;
+        }
+        Class<?> entity = path.getParentPath().getJavaType();
+        String attribute = ((Attribute<?, ?>) path.getModel()).getName();
+        return ANNOTATED_ATTRIBUTES.computeIfAbsent(annotation, a -> new ConcurrentHashMap<>())
+                .computeIfAbsent(entity, e -> new ConcurrentHashMap<>())
+                .computeIfAbsent(attribute, a -> {
+                    Field field = ReflectionUtils.findField(entity, attribute);
+                    PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(entity, attribute);
+                    Method getter = Objects.isNull(descriptor) ? null : descriptor.getReadMethod();
+                    return (onEntity && entity.isAnnotationPresent(annotation))
+                            || (Objects.nonNull(field) && field.isAnnotationPresent(annotation))
+                            || (Objects.nonNull(getter) && getter.isAnnotationPresent(annotation));
+                });
+    }
+
+    private static boolean isBoolean(Path path) {
+        return Boolean.class.equals(ClassUtils.resolvePrimitiveIfNecessary(path.getJavaType()));
     }
 
     private static void addPredicate(SearchOperator searchOperator, String key, String value, Root root, List<Predicate> predicates, CriteriaBuilder builder) {
@@ -183,54 +157,16 @@ public class SearchHelper {
 
         switch (searchOperator) {
             case IN:
-                Set<String> values = new HashSet<>(Arrays.asList(value.split(IN_VALUES_DELIMITER)));
-                if (path.getJavaType().isEnum()) {
-                    Collection<?> filterValuesList = getFilterEnum(path.getJavaType(), values);
-                    predicates.add(path.in(filterValuesList));
-                } else {
-                    predicates.add(path.in(values));
-                }
+                predicates.add(path.in(convertValues(path, value)));
                 break;
             case NOT_IN:
-                Set<String> values1 = new HashSet<>(Arrays.asList(value.split(IN_VALUES_DELIMITER)));
-                if (path.getJavaType().isEnum()) {
-                    Collection<?> filterValuesList = getFilterEnum(path.getJavaType(), values1);
-                    predicates.add(builder.not(path.in(filterValuesList)));
-                } else {
-                    predicates.add(builder.not(path.in(values1)));
-                }
+                predicates.add(builder.not(path.in(convertValues(path, value))));
                 break;
             case EQUAL_TO:
-                if (path.getJavaType().isEnum()) {
-                    predicates.add(path.in(Enum.valueOf(path.getJavaType(), value)));
-                } else if (Date.class.isAssignableFrom(path.getJavaType())) {
-                    predicates.add(builder.equal((Expression) path, parseDate(value).toDate()));
-                } else if (LocalDate.class.isAssignableFrom(path.getJavaType())) {
-                    predicates.add(builder.equal((Expression) path, parseDate(value).toLocalDate()));
-                } else if (DateTime.class.isAssignableFrom(path.getJavaType())) {
-                    predicates.add(builder.equal((Expression) path, parseDate(value)));
-                } else if (Boolean.class.isAssignableFrom(path.getJavaType())) {
-                    value = value.equals("1") ? "true" : "false";
-                    predicates.add(builder.equal(path, Boolean.parseBoolean(value)));
-                } else {
-                    predicates.add(builder.equal(path, value));
-                }
+                predicates.add(builder.equal(path, CONVERTERS.convert(path, value)));
                 break;
             case NOT_EQUAL_TO:
-                if (path.getJavaType().isEnum()) {
-                    predicates.add(builder.notEqual(path, Enum.valueOf(path.getJavaType(), value)));
-                } else if (Date.class.isAssignableFrom(path.getJavaType())) {
-                    predicates.add(builder.notEqual((Expression) path, parseDate(value).toDate()));
-                } else if (LocalDate.class.isAssignableFrom(path.getJavaType())) {
-                    predicates.add(builder.notEqual((Expression) path, parseDate(value).toLocalDate()));
-                } else if (DateTime.class.isAssignableFrom(path.getJavaType())) {
-                    predicates.add(builder.notEqual((Expression) path, parseDate(value)));
-                } else if (Boolean.class.isAssignableFrom(path.getJavaType())) {
-                    value = value.equals("1") ? "true" : "false";
-                    predicates.add(builder.notEqual(path, Boolean.parseBoolean(value)));
-                } else {
-                    predicates.add(builder.notEqual(path, value));
-                }
+                predicates.add(builder.notEqual(path, CONVERTERS.convert(path, value)));
                 break;
             case IS_NULL:
                 predicates.add(builder.isNull(path));
@@ -239,55 +175,22 @@ public class SearchHelper {
                 predicates.add(builder.isNotNull(path));
                 break;
             case GREATER_THAN:
-                if (Date.class.isAssignableFrom(path.getJavaType())) {
-                    predicates.add(builder.greaterThan((Expression) path, parseDate(value).toDate()));
-                } else if (LocalDate.class.isAssignableFrom(path.getJavaType())) {
-                    predicates.add(builder.greaterThan((Expression) path, parseDate(value).toLocalDate()));
-                } else if (DateTime.class.isAssignableFrom(path.getJavaType())) {
-                    predicates.add(builder.greaterThan((Expression) path, parseDate(value)));
-                } else {
-                    predicates.add(builder.greaterThan((Expression<String>) path, value));
-                }
+                predicates.add(builder.greaterThan((Expression<Comparable>) path, (Comparable) CONVERTERS.convert(path, value)));
                 break;
             case LESS_THAN:
-                if (Date.class.isAssignableFrom(path.getJavaType())) {
-                    predicates.add(builder.lessThan((Expression) path, parseDate(value).toDate()));
-                } else if (LocalDate.class.isAssignableFrom(path.getJavaType())) {
-                    predicates.add(builder.lessThan((Expression) path, parseDate(value).toLocalDate()));
-                } else if (DateTime.class.isAssignableFrom(path.getJavaType())) {
-                    predicates.add(builder.lessThan((Expression) path, parseDate(value)));
-                } else {
-                    predicates.add(builder.lessThan((Expression<String>) path, value));
-                }
+                predicates.add(builder.lessThan((Expression<Comparable>) path, (Comparable) CONVERTERS.convert(path, value)));
                 break;
             case GREATER_THAN_EQUAL_TO:
-                if (Date.class.isAssignableFrom(path.getJavaType())) {
-                    predicates.add(builder.greaterThanOrEqualTo((Expression) path, parseDate(value).toDate()));
-                } else if (LocalDate.class.isAssignableFrom(path.getJavaType())) {
-                    predicates.add(builder.greaterThanOrEqualTo((Expression) path, parseDate(value).toLocalDate()));
-                } else if (DateTime.class.isAssignableFrom(path.getJavaType())) {
-                    predicates.add(builder.greaterThanOrEqualTo((Expression) path, parseDate(value)));
-                } else {
-                    predicates.add(builder.greaterThanOrEqualTo((Expression<String>) path, value));
-                }
+                predicates.add(builder.greaterThanOrEqualTo((Expression<Comparable>) path, (Comparable) CONVERTERS.convert(path, value)));
                 break;
             case LESS_THAN_EQUAL_TO:
-                if (Date.class.isAssignableFrom(path.getJavaType())) {
-                    predicates.add(builder.lessThanOrEqualTo((Expression) path, parseDate(value).toDate()));
-                } else if (LocalDate.class.isAssignableFrom(path.getJavaType())) {
-                    predicates.add(builder.lessThanOrEqualTo((Expression) path, parseDate(value).toLocalDate()));
-                } else if (DateTime.class.isAssignableFrom(path.getJavaType())) {
-                    predicates.add(builder.lessThanOrEqualTo((Expression) path, parseDate(value)));
-                } else {
-                    predicates.add(builder.lessThanOrEqualTo((Expression<String>) path, value));
-                }
+                predicates.add(builder.lessThanOrEqualTo((Expression<Comparable>) path, (Comparable) CONVERTERS.convert(path, value)));
                 break;
             case LIKE:
-                if (path.getJavaType().isEnum()) {
-                    predicates.add(builder.equal((Expression<String>) path, Enum.valueOf(path.getJavaType(), value)));
-                } else if (Boolean.class.isAssignableFrom(path.getJavaType())) {
-                    value = value.equals("1") ? "true" : "false";
-                    predicates.add(builder.equal(path, Boolean.parseBoolean(value)));
+                if (path.getJavaType().isEnum() || isBoolean(path)) {
+                    predicates.add(builder.equal(path, CONVERTERS.convert(path, value)));
+                } else if (isAnnotated(path, CaseInsensitive.class, true)) {
+                    predicates.add(builder.like((Expression<String>) path, value + "%"));
                 } else {
                     Expression<String> lowerField = builder.lower((Expression<String>) path);
                     predicates.add(builder.like(lowerField, value.toLowerCase() + "%"));
@@ -295,14 +198,22 @@ public class SearchHelper {
                 break;
             case NOT_LIKE:
                 if (path.getJavaType().isEnum()) {
-                    predicates.add(builder.equal((Expression<String>) path, Enum.valueOf(path.getJavaType(), value)));
-                } else if (Boolean.class.isAssignableFrom(path.getJavaType())) {
-                    value = value.equals("1") ? "false" : "true";
-                    predicates.add(builder.equal(path, Boolean.parseBoolean(value)));
+                    predicates.add(builder.equal(path, CONVERTERS.convert(path, value)));
+                } else if (isBoolean(path)) {
+                    predicates.add(builder.notEqual(path, CONVERTERS.convert(path, value)));
                 } else {
                     predicates.add(builder.notLike((Expression<String>) path, value + "%"));
                 }
                 break;
+            case MATCH:
+                if (!isAnnotated(path, FullText.class, false)) {
+                    throw new ServiceException(String.format("%s is not a FULLTEXT column", key));
+                }
+                if (!StringUtils.hasText(value)) {
+                    throw new ServiceException(String.format("A search text is required to match %s", key));
+                }
+                predicates.add(builder.greaterThan(builder.function(MATCH_AGAINST_FUNCTION, Double.class, path, builder.literal(value)), 0d));
+                break;
             case JSONB_PATH_EXISTS:
                 for (String filter : value.split(JSONB_OPERATOR_AND_DELIMITER)) {
                     expressionList.clear();
@@ -338,24 +249,66 @@ public class SearchHelper {
         }
     }
 
-    private static Path getPath(String key, Root root) {
+    /**
+     * Resolves {@code a-b-c} to {@code c} on the joined {@code a.b}. Joins already present on the query for the
+     * same singular association and join type are reused, so several filters on one association share a single join.
+     * Collections are joined once per filter, so {@code tags-name.eq:a;tags-name.eq:b} keeps matching rows having
+     * both tags rather than a single tag named both. A segment suffixed with {@code ~} ({@code driver~-city}) is
+     * joined with a LEFT instead of an INNER join.
+     */
+    public static Path getPath(String key, Root root) {
+        return getPath(key, root, false);
+    }
+
+    public static boolean isJoinPath(String key) {
+        return key.contains(KEY_DELIMITER);
+    }
+
+    /**
+     * Resolves a projected field like {@link #getPath(String, Root)}, but joins missing associations with LEFT joins
+     * and reuses any join the filters created, so selecting a field never drops rows from the result.
+     */
+    public static Path getSelectionPath(String key, Root root) {
+        return getPath(key, root, true);
+    }
+
+    private static Path getPath(String key, Root root, boolean selection) {
         Path path = root;
         int index = key.indexOf(KEY_DELIMITER);
         if (index > -1) {
             String[] data = key.split(KEY_DELIMITER);
-            Join innerJoin = root.join(data[0]);
-            for (int i = 1; i < data.length - 1; i++) {
-                innerJoin = innerJoin.join(data[i]);
+            From join = root;
+            for (int i = 0; i < data.length - 1; i++) {
+                join = getOrCreateJoin(join, data[i], selection);
             }
-            path = innerJoin.get(data[data.length - 1]);
+            path = join.get(data[data.length - 1]);
         } else {
             path = path.get(key);
         }
         return path;
     }
 
+    private static Join<?, ?> getOrCreateJoin(From<?, ?> from, String attribute, boolean selection) {
+        JoinType joinType = selection ? JoinType.LEFT : JoinType.INNER;
+        if (attribute.endsWith(LEFT_JOIN_SUFFIX)) {
+            attribute = attribute.substring(0, attribute.length() - LEFT_JOIN_SUFFIX.length());
+            joinType = JoinType.LEFT;
+        }
+        for (Join<?, ?> join : from.getJoins()) {
+            if (!join.getAttribute().isCollection() && join.getAttribute().getName().equals(attribute)
+                    && (selection || joinType.equals(join.getJoinType()))) {
+                return join;
+            }
+        }
+        return from.join(attribute, joinType);
+    }
+
     public static Pageable getPageRequest(Integer page, Integer fetchSize, String sortBy) {
-        Sort sort = null;
+        return PageRequest.of(page, fetchSize, getSort(sortBy));
+    }
+
+    public static Sort getSort(String sortBy) {
+        Sort sort = Sort.unsorted();
         if (!StringUtils.isEmpty(sortBy)) {
             String[] sortParams = sortBy.split(IN_VALUES_DELIMITER);
             for (String sortParam : sortParams) {
@@ -370,20 +323,62 @@ public class SearchHelper {
                     key = sortBySortOrder[0];
                     value = Sort.Direction.fromString(sortBySortOrder[1]);
                 }
-                if (Objects.isNull(sort)) {
-                    sort = Sort.by(value, key);
-                } else {
-                    sort = sort.and(Sort.by(value, key));
-                }
+                sort = sort.and(Sort.by(value, key));
+            }
+        }
+        return sort;
+    }
+
+    public static CountStrategy getCountStrategy(String count) {
+        if (StringUtils.isEmpty(count)) {
+            return CountStrategy.EXACT;
+        }
+        CountStrategy countStrategy = CountStrategy.value(count);
+        if (Objects.isNull(countStrategy)) {
+            throw new ServiceException(String.format("%s is not a Valid Count Strategy", count));
+        }
+        return countStrategy;
+    }
+
+    /**
+     * Parses a comma separated {@code fields} parameter, always selecting {@code id} first.
+     */
+    public static List<String> getFields(String fields) {
+        Set<String> fieldSet = new LinkedHashSet<>();
+        fieldSet.add(ID_FIELD);
+        for (String field : fields.split(IN_VALUES_DELIMITER)) {
+            if (!field.trim().isEmpty()) {
+                fieldSet.add(field.trim());
             }
         }
-        if (Objects.nonNull(sort))
-            return PageRequest.of(page, fetchSize, sort);
-        return PageRequest.of(page, fetchSize);
+        return new ArrayList<>(fieldSet);
+    }
 
+    /**
+     * Copies a projected tuple onto a new, unmanaged instance of {@code clazz}; joined fields
+     * ({@code driver-name}) are set on nested instances created on demand.
+     */
+    public static <T> T toProjection(Class<T> clazz, List<String> fields, Tuple tuple) {
+        T entity = BeanUtils.instantiateClass(clazz);
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(entity);
+        wrapper.setAutoGrowNestedPaths(true);
+        for (int i = 0; i < fields.size(); i++) {
+            String property = fields.get(i).replace(LEFT_JOIN_SUFFIX, "").replace(KEY_DELIMITER, ".");
+            try {
+                wrapper.setPropertyValue(property, tuple.get(i));
+            } catch (BeansException e) {
+                throw new ServiceException(String.format("%s can not be selected as a field", fields.get(i)), e);
+            }
+        }
+        return entity;
     }
 
-    private static DateTime parseDate(String value) {
-        return ISODateTimeFormat.dateTimeParser().parseDateTime(value);
+    public static boolean hasCollectionJoin(From<?, ?> from) {
+        for (Join<?, ?> join : from.getJoins()) {
+            if (join.getAttribute().isCollection() || hasCollectionJoin(join)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
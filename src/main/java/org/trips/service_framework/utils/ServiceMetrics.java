@@ -0,0 +1,126 @@
+package org.trips.service_framework.utils;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.lang3.StringUtils;
+import org.trips.service_framework.models.FilterPlan;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timers and distribution summaries of the {@code BaseService} and {@code BaseController} hot paths. Filters are
+ * tagged by their shape only (operators used and join count), never by their values. Without a
+ * {@link MeterRegistry} every method just runs the given call.
+ */
+public class ServiceMetrics {
+    private static final String SUCCESS = "success";
+    private static final String ERROR = "error";
+    private static final String NONE = "none";
+    private static final String INVALID = "invalid";
+
+    private final MeterRegistry registry;
+
+    public ServiceMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Times a service operation as {@code service.requests}, tagged with the shape of {@code filters}, which may be null.
+     */
+    public <T> T record(Class<?> entityClass, String operation, String filters, Supplier<T> call) {
+        if (Objects.isNull(registry)) {
+            return call.get();
+        }
+        Tags tags = Tags.of("entity", entityClass.getSimpleName(), "operation", operation);
+        if (StringUtils.isNotBlank(filters)) {
+            FilterPlan plan = getPlan(entityClass, filters);
+            tags = Objects.isNull(plan)
+                    ? tags.and("operators", INVALID, "joins", "0")
+                    : tags.and("operators", plan.getOperators(), "joins", String.valueOf(plan.getJoinCount()));
+        } else {
+            tags = tags.and("operators", NONE, "joins", "0");
+        }
+        return time("service.requests", "Time spent in BaseService operations", tags, call);
+    }
+
+    /**
+     * Times one phase of a search ({@code query}, {@code count}, {@code includes}) as {@code service.search.phase}.
+     */
+    public <T> T recordPhase(Class<?> entityClass, String phase, Supplier<T> call) {
+        if (Objects.isNull(registry)) {
+            return call.get();
+        }
+        return time("service.search.phase", "Time spent per search phase",
+                Tags.of("entity", entityClass.getSimpleName(), "phase", phase), call);
+    }
+
+    /**
+     * Times building the response object of a controller endpoint as {@code controller.response}.
+     */
+    public <T> T recordResponse(Class<?> entityClass, String endpoint, Supplier<T> call) {
+        if (Objects.isNull(registry)) {
+            return call.get();
+        }
+        return time("controller.response", "Time spent mapping entities to the response",
+                Tags.of("entity", entityClass.getSimpleName(), "endpoint", endpoint), call);
+    }
+
+    public void recordResultSize(Class<?> entityClass, String operation, int size) {
+        summary("service.result.size", "Rows returned per operation", entityClass, operation, size);
+    }
+
+    public void recordFetchSize(Class<?> entityClass, String operation, Integer fetchSize) {
+        if (Objects.nonNull(fetchSize)) {
+            summary("service.fetch.size", "Requested page size per operation", entityClass, operation, fetchSize);
+        }
+    }
+
+    /**
+     * Malformed filters fail the operation itself, they are only tagged as invalid here.
+     */
+    private static FilterPlan getPlan(Class<?> entityClass, String filters) {
+        try {
+            return FilterPlanCache.getInstance().get(entityClass, filters);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void summary(String name, String description, Class<?> entityClass, String operation, int value) {
+        if (Objects.isNull(registry)) {
+            return;
+        }
+        DistributionSummary.builder(name)
+                .description(description)
+                .tags("entity", entityClass.getSimpleName(), "operation", operation)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(100000.0)
+                .register(registry)
+                .record(value);
+    }
+
+    private <T> T time(String name, String description, Tags tags, Supplier<T> call) {
+        long start = System.nanoTime();
+        String outcome = ERROR;
+        try {
+            T result = call.get();
+            outcome = SUCCESS;
+            return result;
+        } finally {
+            Timer.builder(name)
+                    .description(description)
+                    .tags(tags.and("outcome", outcome))
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(30))
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package org.trips.service_framework.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.type.Type;
+import org.joda.time.DateTime;
+import org.trips.service_framework.exceptions.ServiceException;
+import org.trips.service_framework.models.entities.BaseEntity;
+
+import javax.persistence.EntityManager;
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.stream.Collectors;
+
+/**
+ * Writes entities with multi-row MySQL {@code INSERT ... ON DUPLICATE KEY UPDATE} statements, bypassing the
+ * persistence context. Column names and value binding come from the Hibernate persister, so converters, user
+ * types and to-one foreign keys are written exactly as a regular flush would write them.
+ */
+@Slf4j
+public class UpsertHelper {
+    private static final String DEFAULT_USER = "System";
+    private static final Set<String> SOFT_DELETE_PROPERTIES = Set.of("deletedAt", "deletedBy");
+
+    /**
+     * Upserts {@code entities} in chunks of {@code chunkSize} rows and returns their ids in input order.
+     * <p>
+     * Every insertable column is written and every updatable column of an existing row is overwritten, nulls
+     * included, except {@code deleted_*}: upserting a soft deleted row does not restore it. {@code created_*} are
+     * only set on insert, {@code updated_*} are stamped from {@link Context#getUserId()}, and {@code version} starts
+     * at 0 and is incremented on update.
+     * <p>
+     * Entities without an id get one from the entity's id generator. With the default identity strategy of
+     * {@link org.trips.service_framework.models.IdGenerator} they are persisted one statement per row instead, only
+     * the snowflake strategy writes new rows in a handful of statements.
+     * <p>
+     * {@code ON DUPLICATE KEY UPDATE} also fires on unique keys other than the id. A row whose id is not in the
+     * table after its chunk was written updated another row through such a key, and fails the upsert with a
+     * {@link ServiceException}, so callers never get ids that do not exist. Rows with an existing id that also
+     * collide with another row's unique key can not be told apart and update one of the two rows; tables with
+     * secondary unique keys should only be upserted by id.
+     */
+    public static <T extends BaseEntity> List<Long> upsert(EntityManager entityManager, Class<T> entityClass, List<T> entities, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new ServiceException(String.format("Invalid upsert chunk size %d", chunkSize));
+        }
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        AbstractEntityPersister persister = (AbstractEntityPersister) session.getFactory().getMetamodel().entityPersister(entityClass);
+        if (persister.isMultiTable() || persister.isInherited() || persister.hasSubclasses()) {
+            throw new ServiceException(String.format("Bulk upsert is not supported for %s", entityClass.getSimpleName()));
+        }
+        entityManager.flush();
+
+        DateTime now = new DateTime();
+        String user = Objects.nonNull(Context.getUserId()) ? Context.getUserId() : DEFAULT_USER;
+        List<Long> ids = new ArrayList<>(entities.size());
+        List<T> rows = new ArrayList<>(entities.size());
+        int persisted = 0;
+        for (T entity : entities) {
+            if (Objects.isNull(entity)) {
+                continue;
+            }
+            if (Objects.isNull(entity.getId()) || entity.getId() <= 0) {
+                Serializable id = persister.getIdentifierGenerator().generate(session, entity);
+                if (id == IdentifierGeneratorHelper.POST_INSERT_INDICATOR) {
+                    // a non null id, 0 included, would make persist treat the entity as detached
+                    entity.setId(null);
+                    entityManager.persist(entity);
+                    entityManager.flush();
+                    ids.add(entity.getId());
+                    persisted++;
+                    continue;
+                }
+                entity.setId((Long) id);
+            }
+            if (Objects.isNull(entity.getCreatedAt())) {
+                entity.setCreatedAt(now);
+            }
+            if (Objects.isNull(entity.getCreatedBy())) {
+                entity.setCreatedBy(user);
+            }
+            entity.setUpdatedAt(now);
+            entity.setUpdatedBy(user);
+            ids.add(entity.getId());
+            rows.add(entity);
+        }
+        if (persisted > 0) {
+            log.warn("Bulk upsert persisted {} new {} rows one by one, their ids come from identity columns",
+                    persisted, entityClass.getSimpleName());
+        }
+
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            List<T> chunk = rows.subList(from, Math.min(from + chunkSize, rows.size()));
+            String sql = getUpsertSql(persister, chunk.size());
+            session.doWork(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    int index = 1;
+                    for (T entity : chunk) {
+                        index = bind(statement, index, persister, session, entity);
+                    }
+                    statement.executeUpdate();
+                }
+                checkIds(connection, persister, session, chunk);
+            });
+        }
+        detach(entityManager, session, persister, rows);
+        return ids;
+    }
+
+    private static String getUpsertSql(AbstractEntityPersister persister, int rowCount) {
+        StringJoiner columns = new StringJoiner(", ");
+        StringJoiner updates = new StringJoiner(", ");
+        int columnCount = 0;
+        for (String column : persister.getIdentifierColumnNames()) {
+            columns.add(column);
+            columnCount++;
+        }
+        boolean[] insertable = persister.getPropertyInsertability();
+        boolean[] updatable = persister.getPropertyUpdateability();
+        for (int i = 0; i < persister.getPropertyNames().length; i++) {
+            String[] names = persister.getPropertyColumnNames(i);
+            for (int j = 0; j < names.length; j++) {
+                if (insertable[i] && persister.getPropertyColumnInsertable()[i][j]) {
+                    columns.add(names[j]);
+                    columnCount++;
+                }
+                if (i == persister.getVersionProperty()) {
+                    updates.add(String.format("%1$s = %1$s + 1", names[j]));
+                } else if (updatable[i] && persister.getPropertyColumnUpdateable()[i][j]
+                        && !SOFT_DELETE_PROPERTIES.contains(persister.getPropertyNames()[i])) {
+                    updates.add(String.format("%1$s = VALUES(%1$s)", names[j]));
+                }
+            }
+        }
+        String placeholders = String.join(", ", Collections.nCopies(columnCount, "?"));
+        String values = String.join(", ", Collections.nCopies(rowCount, "(" + placeholders + ")"));
+        return String.format("insert into %s (%s) values %s on duplicate key update %s",
+                persister.getTableName(0), columns, values, updates);
+    }
+
+    /**
+     * Fails when a row of {@code chunk} is missing after the upsert, i.e. it updated another row through a unique key.
+     */
+    private static void checkIds(Connection connection, AbstractEntityPersister persister, SessionImplementor session, List<? extends BaseEntity> chunk) throws SQLException {
+        String sql = String.format("select %s from %s where %1$s in (%s)", persister.getIdentifierColumnNames()[0],
+                persister.getTableName(0), String.join(", ", Collections.nCopies(chunk.size(), "?")));
+        Set<Long> found = new HashSet<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            int index = 1;
+            for (BaseEntity entity : chunk) {
+                persister.getIdentifierType().nullSafeSet(statement, entity.getId(), index++, session);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    found.add(resultSet.getLong(1));
+                }
+            }
+        }
+        List<Long> conflicts = chunk.stream()
+                .map(BaseEntity::getId)
+                .filter(id -> !found.contains(id))
+                .collect(Collectors.toList());
+        if (!conflicts.isEmpty()) {
+            throw new ServiceException(String.format("Bulk upsert rows %s of %s conflict with existing rows on a unique key other than the id",
+                    conflicts, persister.getEntityName()));
+        }
+    }
+
+    private static int bind(PreparedStatement statement, int index, AbstractEntityPersister persister, SessionImplementor session, BaseEntity entity) throws SQLException {
+        Type identifierType = persister.getIdentifierType();
+        identifierType.nullSafeSet(statement, entity.getId(), index, session);
+        index += identifierType.getColumnSpan(session.getFactory());
+
+        Object[] values = persister.getPropertyValues(entity);
+        Type[] types = persister.getPropertyTypes();
+        boolean[] insertable = persister.getPropertyInsertability();
+        for (int i = 0; i < values.length; i++) {
+            if (!insertable[i] || persister.getPropertyColumnSpan(i) == 0) {
+                continue;
+            }
+            boolean[] settable = persister.getPropertyColumnInsertable()[i];
+            Object value = i == persister.getVersionProperty() ? 0L : values[i];
+            types[i].nullSafeSet(statement, value, index, settable, session);
+            for (boolean column : settable) {
+                if (column) {
+                    index++;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Managed copies of upserted rows are stale now, they are evicted so later reads in this session hit the database.
+     */
+    private static void detach(EntityManager entityManager, SessionImplementor session, AbstractEntityPersister persister, List<? extends BaseEntity> rows) {
+        for (BaseEntity row : rows) {
+            EntityKey key = session.generateEntityKey(row.getId(), persister);
+            Object managed = session.getPersistenceContextInternal().getEntity(key);
+            if (Objects.nonNull(managed)) {
+                entityManager.detach(managed);
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.trips.service_framework.utils;
+
+/**
+ * Converts the raw value of a filter clause to the Java type of the attribute it is bound against.
+ */
+@FunctionalInterface
+public interface ValueConverter<T> {
+    T convert(String value);
+}
@@ -0,0 +1,130 @@
+package org.trips.service_framework.utils;
+
+import org.joda.time.DateTime;
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+import org.springframework.util.ClassUtils;
+import org.trips.service_framework.exceptions.ServiceException;
+
+import javax.persistence.criteria.Path;
+import javax.persistence.metamodel.Attribute;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Converters from filter values to attribute types, so predicates bind typed parameters instead of strings.
+ * The converter of an attribute is resolved once, from its type, superclasses and interfaces, and cached per
+ * metamodel attribute. Enums convert by constant name, types without a converter keep the raw string.
+ */
+public class ValueConverterRegistry {
+    private static final DateTimeFormatter DATE_TIME_PARSER = ISODateTimeFormat.dateTimeParser();
+    private static final ValueConverter<String> IDENTITY = value -> value;
+    private static final ValueConverterRegistry INSTANCE = new ValueConverterRegistry();
+
+    private final Map<Class<?>, ValueConverter<?>> converters = new ConcurrentHashMap<>();
+    private final Map<Object, ValueConverter<?>> resolved = new ConcurrentHashMap<>();
+
+    public ValueConverterRegistry() {
+        register(String.class, IDENTITY);
+        register(Long.class, Long::valueOf);
+        register(Integer.class, Integer::valueOf);
+        register(Short.class, Short::valueOf);
+        register(Byte.class, Byte::valueOf);
+        register(Double.class, Double::valueOf);
+        register(Float.class, Float::valueOf);
+        register(BigDecimal.class, BigDecimal::new);
+        register(BigInteger.class, BigInteger::new);
+        register(Boolean.class, value -> "1".equals(value) || "true".equalsIgnoreCase(value));
+        register(UUID.class, UUID::fromString);
+        register(DateTime.class, ValueConverterRegistry::parseDate);
+        register(org.joda.time.LocalDate.class, value -> parseDate(value).toLocalDate());
+        register(org.joda.time.LocalDateTime.class, value -> parseDate(value).toLocalDateTime());
+        register(Date.class, value -> parseDate(value).toDate());
+        register(java.sql.Date.class, value -> new java.sql.Date(parseDate(value).getMillis()));
+        register(java.sql.Timestamp.class, value -> new java.sql.Timestamp(parseDate(value).getMillis()));
+        register(Instant.class, value -> Instant.ofEpochMilli(parseDate(value).getMillis()));
+        register(ZonedDateTime.class, value -> ZonedDateTime.ofInstant(Instant.ofEpochMilli(parseDate(value).getMillis()), ZoneId.systemDefault()));
+        register(OffsetDateTime.class, value -> OffsetDateTime.ofInstant(Instant.ofEpochMilli(parseDate(value).getMillis()), ZoneId.systemDefault()));
+        register(LocalDateTime.class, value -> LocalDateTime.ofInstant(Instant.ofEpochMilli(parseDate(value).getMillis()), ZoneId.systemDefault()));
+        register(java.time.LocalDate.class, value -> {
+            org.joda.time.LocalDate date = parseDate(value).toLocalDate();
+            return java.time.LocalDate.of(date.getYear(), date.getMonthOfYear(), date.getDayOfMonth());
+        });
+    }
+
+    public static ValueConverterRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers or replaces the converter of {@code type} and its subtypes without a converter of their own.
+     */
+    public <T> void register(Class<T> type, ValueConverter<? extends T> converter) {
+        converters.put(type, converter);
+        resolved.clear();
+    }
+
+    public ValueConverter<?> resolve(Path<?> path) {
+        Object attribute = Objects.nonNull(path.getModel()) ? path.getModel() : path.getJavaType();
+        ValueConverter<?> converter = resolved.get(attribute);
+        return Objects.nonNull(converter) ? converter : resolved.computeIfAbsent(attribute, ignored -> resolve(path.getJavaType()));
+    }
+
+    public Object convert(Path<?> path, String value) {
+        return convert(resolve(path), path, value);
+    }
+
+    /**
+     * Converts with an already resolved converter, {@code null} stays {@code null}.
+     */
+    public Object convert(ValueConverter<?> converter, Path<?> path, String value) {
+        if (Objects.isNull(value)) {
+            return null;
+        }
+        try {
+            return converter.convert(value);
+        } catch (IllegalArgumentException | DateTimeException | ArithmeticException e) {
+            throw new ServiceException(String.format("%s is not a valid %s for %s", value, path.getJavaType().getSimpleName(), getName(path)), e);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private ValueConverter<?> resolve(Class<?> javaType) {
+        Class<?> type = ClassUtils.resolvePrimitiveIfNecessary(javaType);
+        if (type.isEnum()) {
+            return value -> Enum.valueOf((Class<? extends Enum>) type, value);
+        }
+        for (Class<?> clazz = type; Objects.nonNull(clazz); clazz = clazz.getSuperclass()) {
+            ValueConverter<?> converter = converters.get(clazz);
+            if (Objects.nonNull(converter)) {
+                return converter;
+            }
+        }
+        for (Class<?> clazz : ClassUtils.getAllInterfacesForClassAsSet(type)) {
+            ValueConverter<?> converter = converters.get(clazz);
+            if (Objects.nonNull(converter)) {
+                return converter;
+            }
+        }
+        return IDENTITY;
+    }
+
+    private static String getName(Path<?> path) {
+        return path.getModel() instanceof Attribute ? ((Attribute<?, ?>) path.getModel()).getName() : String.valueOf(path.getModel());
+    }
+
+    private static DateTime parseDate(String value) {
+        return DATE_TIME_PARSER.parseDateTime(value);
+    }
+}
@@ -0,0 +1,57 @@
+package org.trips.service_framework.caches;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+
+/**
+ * Redis stand-ins for the search cache tests: a Testcontainers redis, or a port nothing listens on.
+ * <p>
+ * Tests on the container are tagged {@link #DOCKER_TAG} and fail without a Docker daemon rather than being skipped,
+ * {@code -PskipDockerTests} excludes them explicitly.
+ */
+public final class RedisTestSupport {
+    public static final String DOCKER_TAG = "docker";
+    public static final int REDIS_PORT = 6379;
+    private static final int UNREACHABLE_PORT = 1;
+
+    private RedisTestSupport() {
+    }
+
+    public static GenericContainer<?> container() {
+        return new GenericContainer<>(DockerImageName.parse("redis:6.2-alpine")).withExposedPorts(REDIS_PORT);
+    }
+
+    public static StringRedisTemplate template(GenericContainer<?> redis) {
+        return template(redis.getHost(), redis.getMappedPort(REDIS_PORT));
+    }
+
+    public static StringRedisTemplate unreachableTemplate() {
+        return template("localhost", UNREACHABLE_PORT);
+    }
+
+    public static void flush(StringRedisTemplate template) {
+        try (RedisConnection connection = template.getRequiredConnectionFactory().getConnection()) {
+            connection.serverCommands().flushAll();
+        }
+    }
+
+    public static void close(StringRedisTemplate template) {
+        ((LettuceConnectionFactory) template.getRequiredConnectionFactory()).destroy();
+    }
+
+    private static StringRedisTemplate template(String host, int port) {
+        LettuceClientConfiguration clientConfiguration = LettuceClientConfiguration.builder()
+                .commandTimeout(Duration.ofSeconds(2))
+                .build();
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(host, port), clientConfiguration);
+        connectionFactory.afterPropertiesSet();
+        return new StringRedisTemplate(connectionFactory);
+    }
+}
@@ -0,0 +1,139 @@
+package org.trips.service_framework.caches;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.trips.service_framework.models.CountStrategy;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag(RedisTestSupport.DOCKER_TAG)
+@Testcontainers
+class SearchResultCacheRedisTest {
+    @Container
+    private static final GenericContainer<?> REDIS = RedisTestSupport.container();
+
+    private static StringRedisTemplate template;
+    private static SearchResultCache cache;
+
+    @BeforeAll
+    static void setUp() {
+        template = RedisTestSupport.template(REDIS);
+        cache = new SearchResultCache(template, Duration.ofMinutes(5));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        RedisTestSupport.close(template);
+    }
+
+    @BeforeEach
+    void flush() {
+        RedisTestSupport.flush(template);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void returnsStoredPage() {
+        String key = key("status.eq:OPEN");
+        SearchResultCache.Lookup miss = cache.lookup(CachedThing.class, key);
+        assertNull(miss.getResult());
+        assertEquals(0L, miss.getGeneration());
+
+        cache.put(key, miss, List.of(3L, 1L, 2L), 42L, true);
+
+        SearchResultCache.CachedSearch hit = cache.lookup(CachedThing.class, key).getResult();
+        assertNotNull(hit);
+        assertEquals(List.of(3L, 1L, 2L), hit.getIds());
+        assertEquals(42L, hit.getTotal());
+        assertTrue(hit.isHasNext());
+    }
+
+    @Test
+    void storesPagesWithoutTotal() {
+        String key = key("status.eq:OPEN");
+        cache.put(key, cache.lookup(CachedThing.class, key), List.of(), null, false);
+
+        SearchResultCache.CachedSearch hit = cache.lookup(CachedThing.class, key).getResult();
+        assertNotNull(hit);
+        assertTrue(hit.getIds().isEmpty());
+        assertNull(hit.getTotal());
+    }
+
+    @Test
+    void rejectsEntriesOfAnOlderGeneration() {
+        String key = key("status.eq:OPEN");
+        cache.put(key, cache.lookup(CachedThing.class, key), List.of(1L), 1L, false);
+
+        cache.invalidate(CachedThing.class);
+
+        SearchResultCache.Lookup lookup = cache.lookup(CachedThing.class, key);
+        assertEquals(1L, lookup.getGeneration());
+        assertNull(lookup.getResult());
+    }
+
+    @Test
+    void rejectsEntriesWrittenAfterAConcurrentWrite() {
+        String key = key("status.eq:OPEN");
+        SearchResultCache.Lookup before = cache.lookup(CachedThing.class, key);
+
+        cache.invalidate(CachedThing.class);
+        cache.put(key, before, List.of(1L), 1L, false);
+
+        assertNull(cache.lookup(CachedThing.class, key).getResult());
+    }
+
+    @Test
+    void invalidatesOnlyTheWrittenEntity() {
+        String key = key("status.eq:OPEN");
+        String otherKey = cache.getKey(OtherThing.class, "status.eq:OPEN", 0, 10, null, CountStrategy.EXACT);
+        cache.put(key, cache.lookup(CachedThing.class, key), List.of(1L), 1L, false);
+        cache.put(otherKey, cache.lookup(OtherThing.class, otherKey), List.of(2L), 1L, false);
+
+        cache.invalidate(OtherThing.class);
+
+        assertNotNull(cache.lookup(CachedThing.class, key).getResult());
+        assertNull(cache.lookup(OtherThing.class, otherKey).getResult());
+    }
+
+    @Test
+    void invalidatesAfterCommit() {
+        String key = key("status.eq:OPEN");
+        cache.put(key, cache.lookup(CachedThing.class, key), List.of(1L), 1L, false);
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.invalidate(CachedThing.class);
+        assertNotNull(cache.lookup(CachedThing.class, key).getResult());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertNull(cache.lookup(CachedThing.class, key).getResult());
+    }
+
+    private static String key(String filters) {
+        return cache.getKey(CachedThing.class, filters, 0, 10, null, CountStrategy.EXACT);
+    }
+
+    private static class CachedThing {
+    }
+
+    private static class OtherThing {
+    }
+}
@@ -0,0 +1,88 @@
+package org.trips.service_framework.caches;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.trips.service_framework.models.CountStrategy;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Key normalization and the fallback when Redis is unavailable; neither needs a running Redis.
+ */
+class SearchResultCacheTest {
+    private static StringRedisTemplate template;
+    private static SearchResultCache cache;
+
+    @BeforeAll
+    static void setUp() {
+        template = RedisTestSupport.unreachableTemplate();
+        cache = new SearchResultCache(template, Duration.ofMinutes(5));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        RedisTestSupport.close(template);
+    }
+
+    @Test
+    void clauseOrderDoesNotChangeTheKey() {
+        assertEquals(key("status.eq:OPEN;city.in:BLR,DEL"), key("city.in:BLR,DEL;status.eq:OPEN"));
+    }
+
+    @Test
+    void groupOrderDoesNotChangeTheKey() {
+        assertEquals(key("status.eq:OPEN__city.eq:BLR;fare.gt:10"), key("fare.gt:10;city.eq:BLR__status.eq:OPEN"));
+    }
+
+    @Test
+    void escapedDelimitersAreKeyedAsTheQueryTokenizesThem() {
+        assertNotEquals(key("name.eq:a\\_\\_city.eq:BLR"), key("name.eq:a__city.eq:BLR"));
+        assertEquals(key("name.eq:a\\_b"), key("name.eq:a_b"));
+    }
+
+    @Test
+    void valuesCanNotCollideWithClauseDelimiters() {
+        assertNotEquals(key("name.eq:a\\;city.eq:b"), key("name.eq:a;city.eq:b"));
+        assertNotEquals(key("name.isNull"), key("name.isNull:"));
+    }
+
+    @Test
+    void pagingSortAndCountStrategyArePartOfTheKey() {
+        String key = cache.getKey(CachedThing.class, "status.eq:OPEN", 0, 10, "id:desc", CountStrategy.EXACT);
+        assertNotEquals(key, cache.getKey(CachedThing.class, "status.eq:OPEN", 1, 10, "id:desc", CountStrategy.EXACT));
+        assertNotEquals(key, cache.getKey(CachedThing.class, "status.eq:OPEN", 0, 20, "id:desc", CountStrategy.EXACT));
+        assertNotEquals(key, cache.getKey(CachedThing.class, "status.eq:OPEN", 0, 10, "id:asc", CountStrategy.EXACT));
+        assertNotEquals(key, cache.getKey(CachedThing.class, "status.eq:OPEN", 0, 10, "id:desc", CountStrategy.NONE));
+        assertNotEquals(key, cache.getKey(OtherThing.class, "status.eq:OPEN", 0, 10, "id:desc", CountStrategy.EXACT));
+    }
+
+    @Test
+    void lookupMissesWhenRedisIsUnavailable() {
+        SearchResultCache.Lookup lookup = cache.lookup(CachedThing.class, key("status.eq:OPEN"));
+        assertNull(lookup.getResult());
+        assertEquals(-1L, lookup.getGeneration());
+    }
+
+    @Test
+    void writesAreSkippedWhenRedisIsUnavailable() {
+        String key = key("status.eq:OPEN");
+        SearchResultCache.Lookup lookup = cache.lookup(CachedThing.class, key);
+        assertDoesNotThrow(() -> cache.put(key, lookup, List.of(1L, 2L), 2L, false));
+        assertDoesNotThrow(() -> cache.invalidate(CachedThing.class));
+    }
+
+    private static String key(String filters) {
+        return cache.getKey(CachedThing.class, filters, 0, 10, null, CountStrategy.EXACT);
+    }
+
+    private static class CachedThing {
+    }
+
+    private static class OtherThing {
+    }
+}
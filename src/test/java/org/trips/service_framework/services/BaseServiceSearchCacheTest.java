@@ -0,0 +1,145 @@
+package org.trips.service_framework.services;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.trips.service_framework.caches.RedisTestSupport;
+import org.trips.service_framework.caches.SearchResultCache;
+import org.trips.service_framework.models.CountStrategy;
+import org.trips.service_framework.models.entities.BaseEntity;
+import org.trips.service_framework.models.repositories.BaseRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Every write path of {@link BaseService} has to move the search cache generation on, so that cached pages of the
+ * entity are no longer served.
+ */
+@Tag(RedisTestSupport.DOCKER_TAG)
+@Testcontainers
+class BaseServiceSearchCacheTest {
+    @Container
+    private static final GenericContainer<?> REDIS = RedisTestSupport.container();
+
+    private static StringRedisTemplate template;
+    private static SearchResultCache cache;
+
+    private BaseRepository<Trip> repository;
+    private TripService service;
+
+    @BeforeAll
+    static void setUpRedis() {
+        template = RedisTestSupport.template(REDIS);
+        cache = new SearchResultCache(template, Duration.ofMinutes(5));
+    }
+
+    @AfterAll
+    static void tearDownRedis() {
+        RedisTestSupport.close(template);
+    }
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        RedisTestSupport.flush(template);
+        repository = mock(BaseRepository.class);
+        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(repository.saveAll(anyIterable())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(repository.getReferenceById(any())).thenAnswer(invocation -> trip(invocation.getArgument(0), "OPEN"));
+        when(repository.findAllById(anyIterable())).thenReturn(List.of(trip(1L, "OPEN")));
+        service = new TripService(repository);
+        ReflectionTestUtils.setField(service, "searchResultCache", cache);
+    }
+
+    @Test
+    void saveBumpsGeneration() {
+        assertInvalidates(() -> service.save(trip(null, "OPEN")));
+    }
+
+    @Test
+    void updateBumpsGeneration() {
+        assertInvalidates(() -> service.update(trip(null, "CLOSED"), 1L));
+    }
+
+    @Test
+    void bulkCreateOrUpdateBumpsGeneration() {
+        assertInvalidates(() -> service.bulkCreateOrUpdate(List.of(trip(1L, "CLOSED"), trip(null, "OPEN"))));
+    }
+
+    @Test
+    void deleteBumpsGeneration() {
+        assertInvalidates(() -> service.delete(1L));
+    }
+
+    @Test
+    void writesSucceedWhenRedisIsUnavailable() {
+        StringRedisTemplate unreachable = RedisTestSupport.unreachableTemplate();
+        try {
+            ReflectionTestUtils.setField(service, "searchResultCache", new SearchResultCache(unreachable, Duration.ofMinutes(5)));
+            Trip saved = service.save(trip(null, "OPEN"));
+            assertEquals("OPEN", saved.getStatus());
+        } finally {
+            RedisTestSupport.close(unreachable);
+        }
+    }
+
+    private static void assertInvalidates(Runnable write) {
+        String key = cache.getKey(Trip.class, "status.eq:OPEN", 0, 10, null, CountStrategy.EXACT);
+        SearchResultCache.Lookup before = cache.lookup(Trip.class, key);
+        cache.put(key, before, List.of(1L), 1L, false);
+        assertNotNull(cache.lookup(Trip.class, key).getResult());
+
+        write.run();
+
+        SearchResultCache.Lookup after = cache.lookup(Trip.class, key);
+        assertEquals(before.getGeneration() + 1, after.getGeneration());
+        assertNull(after.getResult());
+    }
+
+    private static Trip trip(Long id, String status) {
+        Trip trip = new Trip();
+        trip.setId(id);
+        trip.setStatus(status);
+        return trip;
+    }
+
+    private static class Trip extends BaseEntity {
+        private String status;
+
+        String getStatus() {
+            return status;
+        }
+
+        void setStatus(String status) {
+            this.status = status;
+        }
+    }
+
+    private static class TripService extends BaseService<Trip> {
+        TripService(BaseRepository<Trip> repository) {
+            super(repository, Trip.class);
+        }
+
+        @Override
+        protected Trip merge(Trip entity, Trip newEntity) {
+            if (Objects.nonNull(entity.getStatus()))
+                newEntity.setStatus(entity.getStatus());
+            return newEntity;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.trips.service_framework.utils;
+
+import org.junit.jupiter.api.Test;
+import org.trips.service_framework.exceptions.ServiceException;
+import org.trips.service_framework.models.FilterClause;
+import org.trips.service_framework.models.SearchOperator;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilterTokenizerTest {
+
+    @Test
+    void keepsColonsOfIsoDates() {
+        assertEquals(List.of(List.of(
+                        clause(SearchOperator.GREATER_THAN, "createdAt", "2024-01-01T10:15:30Z"),
+                        clause(SearchOperator.EQUAL_TO, "status", "OPEN"))),
+                FilterTokenizer.tokenize("createdAt.gt:2024-01-01T10:15:30Z;status.eq:OPEN"));
+        assertEquals(List.of(
+                        List.of(clause(SearchOperator.LESS_THAN, "createdAt", "2024-01-01T10:15:30+05:30")),
+                        List.of(clause(SearchOperator.EQUAL_TO, "status", "OPEN"))),
+                FilterTokenizer.tokenize("createdAt.lt:2024-01-01T10:15:30+05:30__status.eq:OPEN"));
+    }
+
+    @Test
+    void resolvesEscapedDelimiters() {
+        assertEquals(List.of(List.of(clause(SearchOperator.EQUAL_TO, "name", "a;b"), clause(SearchOperator.EQUAL_TO, "city", "BLR"))),
+                FilterTokenizer.tokenize("name.eq:a\\;b;city.eq:BLR"));
+        assertEquals(List.of(List.of(clause(SearchOperator.EQUAL_TO, "name", "a__b"))),
+                FilterTokenizer.tokenize("name.eq:a\\_\\_b"));
+        assertEquals(List.of(List.of(clause(SearchOperator.EQUAL_TO, "name", "a\\b"))),
+                FilterTokenizer.tokenize("name.eq:a\\\\b"));
+    }
+
+    @Test
+    void escapesCommasOnlyInLists() {
+        List<FilterClause> clauses = FilterTokenizer.tokenize("city.in:a\\,b,c\\\\,d").get(0);
+        assertEquals("a\\,b,c\\\\,d", clauses.get(0).getValue());
+        assertEquals(List.of("a,b", "c\\", "d"), FilterTokenizer.splitValues(clauses.get(0).getValue()));
+
+        assertEquals("a\\,b", FilterTokenizer.tokenize("name.eq:a\\,b").get(0).get(0).getValue());
+    }
+
+    @Test
+    void keepsOtherBackslashesLiteral() {
+        assertEquals("C:\\tmp", FilterTokenizer.tokenize("path.eq:C:\\tmp").get(0).get(0).getValue());
+        assertEquals("50\\%", FilterTokenizer.tokenize("discount.like:50\\%").get(0).get(0).getValue());
+        assertEquals("abc\\", FilterTokenizer.tokenize("name.eq:abc\\").get(0).get(0).getValue());
+        assertEquals(List.of("a", "b\\"), FilterTokenizer.splitValues(FilterTokenizer.tokenize("name.in:a,b\\").get(0).get(0).getValue()));
+    }
+
+    @Test
+    void splitsGroupsOnTheFirstTwoOfThreeUnderscores() {
+        assertEquals(List.of(
+                        List.of(clause(SearchOperator.EQUAL_TO, "name", "a")),
+                        List.of(clause(SearchOperator.EQUAL_TO, "_city", "BLR"))),
+                FilterTokenizer.tokenize("name.eq:a___city.eq:BLR"));
+        assertEquals(List.of(
+                        List.of(clause(SearchOperator.EQUAL_TO, "name", "a_")),
+                        List.of(clause(SearchOperator.EQUAL_TO, "city", "BLR"))),
+                FilterTokenizer.tokenize("name.eq:a\\___city.eq:BLR"));
+    }
+
+    @Test
+    void keepsRepeatedKeysInOrder() {
+        assertEquals(List.of(List.of(
+                        clause(SearchOperator.GREATER_THAN, "fare", "10"),
+                        clause(SearchOperator.LESS_THAN, "fare", "20"),
+                        clause(SearchOperator.GREATER_THAN, "fare", "15"))),
+                FilterTokenizer.tokenize("fare.gt:10;fare.lt:20;fare.gt:15"));
+    }
+
+    @Test
+    void reportsThePositionOfMissingKeysAndOperators() {
+        assertError("Missing key at position 0 of the filters", ".eq:1");
+        assertError("Missing key at position 15 of the filters", "status.eq:OPEN;.eq:1");
+        assertError("Missing operator for key status at position 6 of the filters", "status");
+        assertError("Missing operator for key status at position 6 of the filters", "status:OPEN");
+        assertError("foo is not a Valid Search Operator at position 7 of the filters", "status.foo:OPEN");
+        assertError("Missing key at position 13 of the filters", "name.eq:a\\;b;.eq:1");
+    }
+
+    @Test
+    void plainAndEscapedInputsProduceTheSameClauses() {
+        List<String> inputs = List.of(
+                "status.eq:OPEN",
+                "status.eq:OPEN;city.in:BLR,DEL",
+                "createdAt.ge:2024-01-01T00:00:00Z;deletedAt.isNull",
+                "name.like:%a.b%;fare.gt:10;;fare.lt:20");
+        for (String filters : inputs) {
+            List<FilterClause> plain = FilterTokenizer.tokenize(filters).get(0);
+            // a trailing backslash takes the tokenizer off its plain path
+            List<FilterClause> escaped = FilterTokenizer.tokenize(filters + ";path.eq:\\").get(0);
+            assertEquals(plain, escaped.subList(0, escaped.size() - 1), filters);
+        }
+    }
+
+    @Test
+    void emptyFiltersHaveASingleEmptyGroup() {
+        assertEquals(List.of(List.of()), FilterTokenizer.tokenize(null));
+        assertEquals(List.of(List.of()), FilterTokenizer.tokenize(""));
+    }
+
+    private static void assertError(String message, String filters) {
+        ServiceException exception = assertThrows(ServiceException.class, () -> FilterTokenizer.tokenize(filters));
+        assertEquals(message, exception.getMessage());
+    }
+
+    private static FilterClause clause(SearchOperator operator, String key, String value) {
+        return new FilterClause(operator, key, value);
+    }
+}
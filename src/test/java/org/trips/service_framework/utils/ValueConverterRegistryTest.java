@@ -0,0 +1,182 @@
+package org.trips.service_framework.utils;
+
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.trips.service_framework.exceptions.ServiceException;
+import org.trips.service_framework.models.FilterClause;
+import org.trips.service_framework.models.SearchOperator;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.SingularAttribute;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ValueConverterRegistryTest {
+    private static final String TIMESTAMP = "2024-03-01T10:15:30Z";
+
+    private ValueConverterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new ValueConverterRegistry();
+    }
+
+    @Test
+    void convertsPrimitivesThroughTheirWrappers() {
+        assertEquals(42L, registry.convert(path(long.class, "count"), "42"));
+        assertEquals(7, registry.convert(path(int.class, "seats"), "7"));
+        assertEquals(2.5d, registry.convert(path(double.class, "distance"), "2.5"));
+        assertEquals(true, registry.convert(path(boolean.class, "active"), "true"));
+    }
+
+    @Test
+    void convertsBooleansLeniently() {
+        Path<?> path = path(Boolean.class, "active");
+        assertEquals(true, registry.convert(path, "1"));
+        assertEquals(true, registry.convert(path, "TRUE"));
+        assertEquals(false, registry.convert(path, "false"));
+        assertEquals(false, registry.convert(path, "yes"));
+    }
+
+    @Test
+    void convertsEnumsByName() {
+        assertEquals(Status.OPEN, registry.convert(path(Status.class, "status"), "OPEN"));
+    }
+
+    @Test
+    void convertsNumbersAndIds() {
+        assertEquals(new BigDecimal("10.50"), registry.convert(path(BigDecimal.class, "fare"), "10.50"));
+        UUID uuid = UUID.randomUUID();
+        assertEquals(uuid, registry.convert(path(UUID.class, "reference"), uuid.toString()));
+    }
+
+    @Test
+    void convertsDatesInTheSystemZone() {
+        Instant instant = Instant.parse(TIMESTAMP);
+        assertEquals(instant, registry.convert(path(Instant.class, "createdAt"), TIMESTAMP));
+        assertEquals(Date.from(instant), registry.convert(path(Date.class, "createdAt"), TIMESTAMP));
+        assertEquals(instant.toEpochMilli(), ((DateTime) registry.convert(path(DateTime.class, "createdAt"), TIMESTAMP)).getMillis());
+        assertEquals(LocalDateTime.ofInstant(instant, ZoneId.systemDefault()), registry.convert(path(LocalDateTime.class, "createdAt"), TIMESTAMP));
+        assertEquals(ZonedDateTime.ofInstant(instant, ZoneId.systemDefault()), registry.convert(path(ZonedDateTime.class, "createdAt"), TIMESTAMP));
+        assertEquals(LocalDate.of(2024, 3, 1), registry.convert(path(LocalDate.class, "tripDate"), "2024-03-01"));
+    }
+
+    @Test
+    void keepsTheRawStringWithoutAConverter() {
+        assertEquals("raw", registry.convert(path(Unconverted.class, "payload"), "raw"));
+        assertNull(registry.convert(path(Long.class, "count"), null));
+    }
+
+    @Test
+    void resolvesRegisteredSupertypes() {
+        Path<?> path = path(AtomicLong.class, "counter");
+        assertEquals("raw", registry.convert(path, "raw"));
+
+        registry.register(Number.class, value -> new AtomicLong(Long.parseLong(value)));
+
+        assertEquals(5L, ((AtomicLong) registry.convert(path, "5")).get());
+    }
+
+    @Test
+    void resolvesOncePerAttribute() {
+        Path<?> path = path(Long.class, "count");
+        assertSame(registry.resolve(path), registry.resolve(path));
+    }
+
+    @Test
+    void reportsInvalidValues() {
+        assertError("abc is not a valid Long for count", path(Long.class, "count"), "abc");
+        assertError("1.5 is not a valid int for seats", path(int.class, "seats"), "1.5");
+        assertError("ten is not a valid BigDecimal for fare", path(BigDecimal.class, "fare"), "ten");
+        assertError("PARKED is not a valid Status for status", path(Status.class, "status"), "PARKED");
+        assertError("yesterday is not a valid Instant for createdAt", path(Instant.class, "createdAt"), "yesterday");
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void bindsTypedValuesInPredicates() {
+        Path<?> active = path(Boolean.class, "active");
+        Path<?> fare = path(BigDecimal.class, "fare");
+        Path<?> count = path(Long.class, "count");
+        Path<?> status = path(Status.class, "status");
+        Root<?> root = root(active, fare, count, status);
+        CriteriaBuilder builder = mock(CriteriaBuilder.class);
+
+        SearchHelper.getPredicatesFromClauses(List.of(
+                new FilterClause(SearchOperator.EQUAL_TO, "active", "true"),
+                new FilterClause(SearchOperator.GREATER_THAN, "fare", "10.50"),
+                new FilterClause(SearchOperator.LESS_THAN, "count", "20"),
+                new FilterClause(SearchOperator.IN, "count", "1,2"),
+                new FilterClause(SearchOperator.NOT_IN, "status", "OPEN,CLOSED")), root, builder);
+
+        verify(builder).equal(active, true);
+        verify(builder).greaterThan((Expression) fare, (Comparable) new BigDecimal("10.50"));
+        verify(builder).lessThan((Expression) count, (Comparable) 20L);
+        verify(count).in(Set.of(1L, 2L));
+        verify(status).in(Set.of(Status.OPEN, Status.CLOSED));
+    }
+
+    @Test
+    void rejectsInvalidPredicateValues() {
+        Root<?> root = root(path(Status.class, "status"), path(Long.class, "count"));
+        CriteriaBuilder builder = mock(CriteriaBuilder.class);
+
+        assertThrows(ServiceException.class, () -> SearchHelper.getPredicatesFromClauses(
+                List.of(new FilterClause(SearchOperator.EQUAL_TO, "status", "PARKED")), root, builder));
+        assertThrows(ServiceException.class, () -> SearchHelper.getPredicatesFromClauses(
+                List.of(new FilterClause(SearchOperator.GREATER_THAN, "count", "many")), root, builder));
+        assertThrows(ServiceException.class, () -> SearchHelper.getPredicatesFromClauses(
+                List.of(new FilterClause(SearchOperator.IN, "count", "1,two")), root, builder));
+    }
+
+    private void assertError(String message, Path<?> path, String value) {
+        ServiceException exception = assertThrows(ServiceException.class, () -> registry.convert(path, value));
+        assertEquals(message, exception.getMessage());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Path<?> path(Class<?> javaType, String name) {
+        SingularAttribute attribute = mock(SingularAttribute.class);
+        when(attribute.getName()).thenReturn(name);
+        Path path = mock(Path.class);
+        when(path.getModel()).thenReturn(attribute);
+        when(path.getJavaType()).thenReturn(javaType);
+        return path;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Root<?> root(Path<?>... paths) {
+        Root root = mock(Root.class);
+        when(root.getJavaType()).thenReturn(Object.class);
+        for (Path<?> path : paths) {
+            String name = ((SingularAttribute<?, ?>) path.getModel()).getName();
+            when(root.get(name)).thenReturn(path);
+        }
+        return root;
+    }
+
+    private enum Status {
+        OPEN, CLOSED
+    }
+
+    private static class Unconverted {
+    }
+}